@@ -18,6 +18,7 @@
 package nl.codevs.strinput.examples.spigotmc;
 
 import net.kyori.adventure.platform.bukkit.BukkitAudiences;
+import nl.codevs.strinput.examples.spigotmc.extensions.SpigotIndexListener;
 import nl.codevs.strinput.examples.spigotmc.extensions.SpigotPlayerContext;
 import nl.codevs.strinput.examples.spigotmc.extensions.SpigotPlayerHandler;
 import nl.codevs.strinput.examples.spigotmc.extensions.SpigotWorldContext;
@@ -26,15 +27,18 @@ import nl.codevs.strinput.system.StrCenter;
 import nl.codevs.strinput.system.StrUser;
 import nl.codevs.strinput.system.StrCategory;
 import nl.codevs.strinput.system.context.StrContextHandler;
+import nl.codevs.strinput.system.execution.StrSyncQueue;
 import nl.codevs.strinput.system.parameter.StrParameterHandler;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Spigot command center.
@@ -54,6 +58,16 @@ public class SpigotCenter extends StrCenter {
      */
     private final BukkitAudiences audiences;
 
+    /**
+     * Queue of sync commands, drained each tick.
+     */
+    private final StrSyncQueue syncQueue = new StrSyncQueue();
+
+    /**
+     * The repeating task draining the {@link #syncQueue} each tick.
+     */
+    private final BukkitTask syncTask;
+
     /**
      * Create a new spigot command center.
      *
@@ -83,6 +97,15 @@ public class SpigotCenter extends StrCenter {
         );
         instance = plugin;
         audiences = BukkitAudiences.builder(plugin).build();
+        Bukkit.getPluginManager().registerEvents(new SpigotIndexListener(plugin, this), plugin);
+
+        // Drain sync commands each tick, within the budget
+        syncTask = Bukkit.getScheduler().runTaskTimer(
+                plugin,
+                () -> syncQueue.drain(TimeUnit.MILLISECONDS.toNanos(getSettings().getSyncBudget())),
+                1L,
+                1L
+        );
     }
 
     /**
@@ -109,13 +132,52 @@ public class SpigotCenter extends StrCenter {
     }
 
     /**
-     * Run a function sync (on the main thread, when needed).
+     * Run a function sync (on the main thread, when needed).<br>
+     * Queued, and ran on the next tick that has
+     * {@link nl.codevs.strinput.system.StrSettings#getSyncBudget() budget} left.
+     * Once shut down, there are no more ticks, so it runs right away on the main thread.
      *
      * @param runnable the runnable to run
      */
     @Override
     public void runSync(@NotNull final Runnable runnable) {
-        Bukkit.getScheduler().scheduleSyncDelayedTask(instance, runnable);
+        if (isShutdown() && Bukkit.isPrimaryThread()) {
+            runnable.run();
+            return;
+        }
+        syncQueue.submit(runnable);
+    }
+
+    /**
+     * Shut down this center (see {@link StrCenter#shutdown()}).<br>
+     * Stops draining sync commands each tick, and runs the sync commands that are still queued,
+     * so their results complete. Must be called from the main thread.
+     */
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        syncTask.cancel();
+        syncQueue.drainAll();
+    }
+
+    /**
+     * Run the sync commands that are still queued, if called from the main thread.
+     * The main thread is blocked while it awaits termination, so it does not drain the queue otherwise.
+     */
+    @Override
+    protected void awaitingTermination() {
+        if (Bukkit.isPrimaryThread()) {
+            syncQueue.drainAll();
+        }
+    }
+
+    /**
+     * Get the queue of sync commands,
+     * with its depth and tick overrun metrics.
+     * @return the {@link StrSyncQueue}
+     */
+    public StrSyncQueue getSyncQueue() {
+        return syncQueue;
     }
 
     /**
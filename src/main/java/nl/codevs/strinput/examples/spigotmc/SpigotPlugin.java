@@ -24,6 +24,8 @@ import org.bukkit.event.Listener;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
+import java.time.Duration;
+
 /**
  * A Spigot plugin example.
  *
@@ -33,6 +35,12 @@ import org.jetbrains.annotations.NotNull;
 public final class SpigotPlugin extends JavaPlugin
         implements CommandExecutor, Listener {
 
+    /**
+     * Milliseconds to wait for running commands when disabling.
+     * This blocks the main thread, which also runs the sync commands while it waits.
+     */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 2000;
+
     /**
      * Command system for this system.
      */
@@ -56,4 +64,20 @@ public final class SpigotPlugin extends JavaPlugin
                 new SpigotCommands()
         );
     }
+
+    /**
+     * Shut down the command system, and wait (at most {@link #SHUTDOWN_TIMEOUT_MILLIS})
+     * for the commands in flight to finish.<br>
+     * This runs on the main thread, which blocks the server shutdown while waiting.
+     * Sync commands are not waited for in vain, as they run on this thread while it waits.
+     */
+    @Override
+    public void onDisable() {
+        commandSystem.shutdown();
+        try {
+            commandSystem.awaitTermination(Duration.ofMillis(SHUTDOWN_TIMEOUT_MILLIS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.examples.spigotmc.extensions;
+
+import nl.codevs.strinput.examples.spigotmc.SpigotCenter;
+import nl.codevs.strinput.examples.spigotmc.SpigotUser;
+import nl.codevs.strinput.system.parameter.IndexedParameterHandler;
+import nl.codevs.strinput.system.parameter.StrParameterHandler;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Invalidates the indexed {@link Player} and {@link World} handlers
+ * when players join or quit, and when worlds load or unload.<br>
+ * Quitting players and unloading worlds are only removed after their event,
+ * so those handlers are invalidated on the next tick.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class SpigotIndexListener implements Listener {
+
+    /**
+     * The plugin, to schedule tasks with.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The command center with the handlers.
+     */
+    private final SpigotCenter center;
+
+    /**
+     * Create a new index listener.
+     * @param listenerPlugin the plugin, to schedule tasks with
+     * @param commandCenter the command center with the handlers
+     */
+    public SpigotIndexListener(
+            @NotNull final Plugin listenerPlugin,
+            @NotNull final SpigotCenter commandCenter
+    ) {
+        this.plugin = listenerPlugin;
+        this.center = commandCenter;
+    }
+
+    /**
+     * Invalidate the player handler when a player joins.
+     * @param event the event
+     */
+    @EventHandler
+    public void onJoin(@NotNull final PlayerJoinEvent event) {
+        invalidate(Player.class);
+    }
+
+    /**
+     * Invalidate the player handler and the cached context of a player when it quits.
+     * @param event the event
+     */
+    @EventHandler
+    public void onQuit(@NotNull final PlayerQuitEvent event) {
+        center.getContextCache().invalidate(new SpigotUser(event.getPlayer()));
+        Bukkit.getScheduler().runTask(plugin, () -> invalidate(Player.class));
+    }
+
+    /**
+     * Invalidate the world handler when a world loads.
+     * @param event the event
+     */
+    @EventHandler
+    public void onWorldLoad(@NotNull final WorldLoadEvent event) {
+        invalidate(World.class);
+    }
+
+    /**
+     * Invalidate the world handler when a world unloads.
+     * @param event the event
+     */
+    @EventHandler
+    public void onWorldUnload(@NotNull final WorldUnloadEvent event) {
+        Bukkit.getScheduler().runTask(plugin, () -> invalidate(World.class));
+    }
+
+    /**
+     * Invalidate the handler of a type, if it is indexed.
+     * @param type the type
+     */
+    private void invalidate(@NotNull final Class<?> type) {
+        StrParameterHandler<?> handler = center.getParameterHandlers().resolve(type);
+        if (handler instanceof IndexedParameterHandler<?> indexed) {
+            indexed.invalidate();
+        }
+    }
+}
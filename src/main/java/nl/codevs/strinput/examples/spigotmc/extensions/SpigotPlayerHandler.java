@@ -17,15 +17,12 @@
  */
 package nl.codevs.strinput.examples.spigotmc.extensions;
 
-import nl.codevs.strinput.system.parameter.StrParameterHandler;
+import nl.codevs.strinput.system.parameter.IndexedParameterHandler;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
-import java.util.stream.Collectors;
+import java.util.Collection;
 
 /**
  * Spigot user implementation.
@@ -33,16 +30,16 @@ import java.util.stream.Collectors;
  * @author Sjoerd van de Goor
  * @since v0.1
  */
-public class SpigotPlayerHandler implements StrParameterHandler<Player> {
+public class SpigotPlayerHandler extends IndexedParameterHandler<Player> {
     /**
-     * Get all possible values for this type.<br>
-     * Do not specify lists of very high length (10^6)
+     * List the current online players.<br>
+     * Only called when the index is rebuilt, after {@link #invalidate()}.
      *
-     * @return a list of possibilities
+     * @return the online players
      */
     @Override
-    public List<Player> getPossibilities() {
-        return new ArrayList<>(Bukkit.getOnlinePlayers());
+    protected @NotNull Collection<? extends Player> listPossibilities() {
+        return Bukkit.getOnlinePlayers();
     }
 
     /**
@@ -73,48 +70,29 @@ public class SpigotPlayerHandler implements StrParameterHandler<Player> {
      */
     @Override
     public @NotNull Player parse(@NotNull final String text) throws Throwable {
-        List<Player> options = getPossibilities(text);
-        if (options.size() == 0) {
-            throw new StrParseException(
-                    Player.class,
-                    text,
-                    "No options found for input"
-            );
-        } else if (options.size() == 1) {
-            return options.get(0);
-        } else {
-            throw new StrWhichException(
-                    Player.class,
-                    text,
-                    options
-            );
-        }
+        return find(Player.class, text);
     }
 
     /**
-     * Get a random default value.
+     * Parse a player to a string.
      *
-     * @return the random default
+     * @param input the player
+     * @return the name of the player
      */
     @Override
-    public @NotNull String getRandomDefault() {
-        return getPossibilities().get(
-                RANDOM.nextInt(getPossibilities().size())
-        ).getName();
+    public @NotNull String toString(@NotNull final Player input) {
+        return input.getName();
     }
 
     /**
-     * Get all possible values for this type,
-     * filtered with some input string.
+     * Get a random default value.
      *
-     * @param input the input string to filter by
-     * @return a list of possibilities
+     * @return the random default
      */
     @Override
-    public @NotNull List<Player> getPossibilities(@NotNull final String input) {
-        final String i = input.toLowerCase(Locale.ROOT);
-        return getPossibilities().stream().filter(
-                p -> p.getName().toLowerCase(Locale.ROOT).startsWith(i)
-        ).collect(Collectors.toList());
+    public @NotNull String getRandomDefault() {
+        return getPossibilities().get(
+                RANDOM.nextInt(getPossibilities().size())
+        ).getName();
     }
 }
@@ -19,29 +19,27 @@ package nl.codevs.strinput.examples.spigotmc.extensions;
 
 import nl.codevs.strinput.examples.spigotmc.SpigotUser;
 import nl.codevs.strinput.system.Context;
-import nl.codevs.strinput.system.parameter.StrParameterHandler;
+import nl.codevs.strinput.system.parameter.IndexedParameterHandler;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-import java.util.Locale;
-import java.util.stream.Collectors;
+import java.util.Collection;
 
 /**
  * Parameter handler for {@link World}s.
  * @author Sjoerd van de Goor
  * @since v0.2
  */
-public class SpigotWorldHandler implements StrParameterHandler<World> {
+public class SpigotWorldHandler extends IndexedParameterHandler<World> {
     /**
-     * Get all possible values for this type.<br>
-     * Do not specify lists of very high length (10^6)
+     * List the loaded worlds.<br>
+     * Only called when the index is rebuilt, after {@link #invalidate()}.
      *
-     * @return a list of possibilities
+     * @return the loaded worlds
      */
     @Override
-    public List<World> getPossibilities() {
+    protected @NotNull Collection<World> listPossibilities() {
         return Bukkit.getWorlds();
     }
 
@@ -80,48 +78,29 @@ public class SpigotWorldHandler implements StrParameterHandler<World> {
                     "User is not a player"
             );
         }
-        List<World> options = getPossibilities(text);
-        if (options.size() == 0) {
-            throw new StrParseException(
-                    World.class,
-                    text,
-                    "No options found for input"
-            );
-        } else if (options.size() == 1) {
-            return options.get(0);
-        } else {
-            throw new StrWhichException(
-                    World.class,
-                    text,
-                    options
-            );
-        }
+        return find(World.class, text);
     }
 
     /**
-     * Get a random default value.
+     * Parse a world to a string.
      *
-     * @return the random default
+     * @param input the world
+     * @return the name of the world
      */
     @Override
-    public @NotNull String getRandomDefault() {
-        return getPossibilities().get(
-                RANDOM.nextInt(getPossibilities().size())
-        ).getName();
+    public @NotNull String toString(@NotNull final World input) {
+        return input.getName();
     }
 
     /**
-     * Get all possible values for this type,
-     * filtered with some input string.
+     * Get a random default value.
      *
-     * @param input the input string to filter by
-     * @return a list of possibilities
+     * @return the random default
      */
     @Override
-    public @NotNull List<World> getPossibilities(@NotNull final String input) {
-        final String i = input.toLowerCase(Locale.ROOT);
-        return getPossibilities().stream().filter(
-                w -> w.getName().toLowerCase(Locale.ROOT).startsWith(i)
-        ).collect(Collectors.toList());
+    public @NotNull String getRandomDefault() {
+        return getPossibilities().get(
+                RANDOM.nextInt(getPossibilities().size())
+        ).getName();
     }
 }
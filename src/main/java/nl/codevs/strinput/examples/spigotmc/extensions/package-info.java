@@ -16,6 +16,8 @@
  *     nl.codevs.strinput.examples.spigotmc.extensions.SpigotWorldContext}
  *     Handles world names in context</li>
  * </ul>
+ * {@link nl.codevs.strinput.examples.spigotmc.extensions.SpigotIndexListener}
+ * keeps the player and world handlers up to date.
  * @author Sjoerd van de Goor
  */
 package nl.codevs.strinput.examples.spigotmc.extensions;
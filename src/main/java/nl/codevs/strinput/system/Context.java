@@ -17,6 +17,7 @@
  */
 package nl.codevs.strinput.system;
 
+import nl.codevs.strinput.system.execution.CommandResult;
 import nl.codevs.strinput.system.util.ContextContainer;
 
 /**
@@ -24,12 +25,18 @@ import nl.codevs.strinput.system.util.ContextContainer;
  * <ul>
  *     <li>{@link #touch(StrUser)} store a user for the current thread</li>
  *     <li>{@link #touch(StrCenter)} store a center for the current thread</li>
+ *     <li>{@link #touch(CommandResult.Recorder)} store a result recorder for the current thread</li>
+ *     <li>{@link #touch(StrSettings.Snapshot)} store a settings snapshot for the current thread</li>
+ *     <li>{@link #clear()} remove everything stored for the current thread</li>
  * </ul>
  * <ul>
  *     <li>{@link #user()} get the current {@link StrUser}</li>
  *     <li>{@link #center()} get the current {@link StrCenter}</li>
  *     <li>{@link #settings()} get the current {@link StrSettings}
  *     (based on {@link #center()})</li>
+ *     <li>{@link #snapshot()} get the current {@link StrSettings.Snapshot}
+ *     (captured when the command was dispatched)</li>
+ *     <li>{@link #recorder()} get the current {@link CommandResult.Recorder}</li>
  * </ul>
  *
  * @author Sjoerd van de Goor
@@ -51,6 +58,16 @@ public final class Context {
      */
     private static final ContextContainer<StrCenter> CENTER_CONTEXT_CONTAINER = new ContextContainer<>();
 
+    /**
+     * Context container for {@link CommandResult.Recorder}s.
+     */
+    private static final ContextContainer<CommandResult.Recorder> RECORDER_CONTEXT_CONTAINER = new ContextContainer<>();
+
+    /**
+     * Context container for {@link StrSettings.Snapshot}s.
+     */
+    private static final ContextContainer<StrSettings.Snapshot> SETTINGS_CONTEXT_CONTAINER = new ContextContainer<>();
+
     /**
      * Get the current {@link StrUser}.
      * @return the current {@link StrUser}
@@ -76,7 +93,27 @@ public final class Context {
     }
 
     /**
-     * Add the {@link StrCenter} to the context map and removes dead threads.
+     * Get the settings of the current command.<br>
+     * These are captured once when the command is dispatched, and do not change while it runs.
+     * If no command was dispatched on this thread, a snapshot of the settings of {@link #center()} is used.
+     * @return the current {@link StrSettings.Snapshot}
+     */
+    public static StrSettings.Snapshot snapshot() {
+        StrSettings.Snapshot settings = SETTINGS_CONTEXT_CONTAINER.get();
+        return settings == null ? center().getSettings().snapshot() : settings;
+    }
+
+    /**
+     * Get the current {@link CommandResult.Recorder}.
+     * @return the recorder of the command being dispatched,
+     * or {@code null} if no command was dispatched on this thread
+     */
+    public static CommandResult.Recorder recorder() {
+        return RECORDER_CONTEXT_CONTAINER.get();
+    }
+
+    /**
+     * Add the {@link StrCenter} to the context of the current thread.
      *
      * @param center the {@link StrCenter}
      */
@@ -85,7 +122,7 @@ public final class Context {
     }
 
     /**
-     * Add the {@link StrUser} to the context map and removes dead threads.
+     * Add the {@link StrUser} to the context of the current thread.
      *
      * @param user the {@link StrUser}
      */
@@ -93,6 +130,35 @@ public final class Context {
         USER_CONTEXT_CONTAINER.touch(user);
     }
 
+    /**
+     * Add the {@link CommandResult.Recorder} to the context of the current thread.
+     *
+     * @param recorder the {@link CommandResult.Recorder}
+     */
+    public static void touch(final CommandResult.Recorder recorder) {
+        RECORDER_CONTEXT_CONTAINER.touch(recorder);
+    }
+
+    /**
+     * Add the {@link StrSettings.Snapshot} to the context of the current thread.
+     *
+     * @param settings the {@link StrSettings.Snapshot}
+     */
+    public static void touch(final StrSettings.Snapshot settings) {
+        SETTINGS_CONTEXT_CONTAINER.touch(settings);
+    }
+
+    /**
+     * Remove the user, center, recorder and settings from the context of the current thread.<br>
+     * Pool threads are cleared after each command, so they do not keep the last command reachable.
+     */
+    public static void clear() {
+        USER_CONTEXT_CONTAINER.remove();
+        CENTER_CONTEXT_CONTAINER.remove();
+        RECORDER_CONTEXT_CONTAINER.remove();
+        SETTINGS_CONTEXT_CONTAINER.remove();
+    }
+
     /**
      * Get whether the current thread is registered.
      * @return {@code true} if the current thread is registered, else {@code false}
@@ -18,18 +18,33 @@
 package nl.codevs.strinput.system;
 
 import net.kyori.adventure.text.TextComponent;
+import nl.codevs.strinput.system.context.StrContextCache;
 import nl.codevs.strinput.system.context.StrContextHandler;
+import nl.codevs.strinput.system.execution.CommandResult;
+import nl.codevs.strinput.system.execution.StrExecutor;
+import nl.codevs.strinput.system.execution.StrInvocations;
+import nl.codevs.strinput.system.execution.StrRateLimiter;
+import nl.codevs.strinput.system.execution.StrUserLanes;
 import nl.codevs.strinput.system.parameter.*;
 import nl.codevs.strinput.system.util.C;
+import nl.codevs.strinput.system.util.HandlerRegistry;
 import nl.codevs.strinput.system.util.KyoriUtil;
+import nl.codevs.strinput.system.virtual.StrVirtual;
 import nl.codevs.strinput.system.virtual.StrVirtualCategory;
+import nl.codevs.strinput.system.virtual.StrVirtualCommand;
 import org.apache.commons.lang3.time.StopWatch;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -44,9 +59,27 @@ import java.util.stream.Collectors;
 public class StrCenter {
 
     /**
-     * Settings for this command system.
+     * The priority of the default parameter handlers.
+     * Handlers registered without a priority take precedence over these.
      */
-    private StrSettings settings;
+    public static final int DEFAULT_HANDLER_PRIORITY = -100;
+
+    /**
+     * Milliseconds between checks for finished commands in {@link #awaitTermination(Duration)}.
+     */
+    private static final long TERMINATION_POLL_MILLIS = 10;
+
+    /**
+     * Settings for this command system. Defaults until the settings file is read.
+     * Updated in place by the {@link #settingsWatcher} when the settings file changes,
+     * so the settings command category keeps changing these.
+     */
+    private volatile StrSettings settings = new StrSettings();
+
+    /**
+     * Watcher reloading the settings when the settings file changes.
+     */
+    private final StrSettingsWatcher settingsWatcher;
 
     /**
      * The settings file where the settings are stored.
@@ -68,6 +101,53 @@ public class StrCenter {
      */
     private final Roots roots;
 
+    /**
+     * Parameter handlers of this center.
+     */
+    private final HandlerRegistry<StrParameterHandler<?>> parameterHandlers
+            = new HandlerRegistry<>(StrParameterHandler::supports);
+
+    /**
+     * Context handlers of this center.
+     */
+    private final HandlerRegistry<StrContextHandler<?>> contextHandlers
+            = new HandlerRegistry<>(StrContextHandler::supports);
+
+    /**
+     * Cached context values.
+     */
+    private final StrContextCache contextCache = new StrContextCache();
+
+    /**
+     * Executor running asynchronous commands.
+     */
+    private final StrExecutor executor;
+
+    /**
+     * Per-user lanes on the {@link #executor}.
+     */
+    private final StrUserLanes lanes;
+
+    /**
+     * Per-user rate limits.
+     */
+    private final StrRateLimiter rateLimiter = new StrRateLimiter();
+
+    /**
+     * Running command invocations, with their deadlines.
+     */
+    private final StrInvocations invocations = new StrInvocations("StrInput command watchdog");
+
+    /**
+     * Amount of commands accepted and not yet finished.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Whether this center is shutting down.
+     */
+    private volatile boolean shutdown;
+
     /**
      * Get console sender.
      * @return the console sender
@@ -76,12 +156,52 @@ public class StrCenter {
         return console;
     }
 
+    /**
+     * Get the parameter handlers of this center.
+     * @return the parameter handlers
+     */
+    public HandlerRegistry<StrParameterHandler<?>> getParameterHandlers() {
+        return parameterHandlers;
+    }
+
+    /**
+     * Get the context handlers of this center.
+     * @return the context handlers
+     */
+    public HandlerRegistry<StrContextHandler<?>> getContextHandlers() {
+        return contextHandlers;
+    }
+
+    /**
+     * Get the cache of context values.
+     * @return the context cache
+     */
+    public StrContextCache getContextCache() {
+        return contextCache;
+    }
+
+    /**
+     * Get the executor running asynchronous commands.
+     * @return the executor
+     */
+    public StrExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Get the running command invocations.
+     * @return the invocations
+     */
+    public StrInvocations getInvocations() {
+        return invocations;
+    }
+
     /**
      * Get the settings.
      * @return the settings
      */
     public StrSettings getSettings() {
-        return settings == null ? new StrSettings() : settings;
+        return settings;
     }
 
     /**
@@ -117,9 +237,25 @@ public class StrCenter {
         settings = StrSettings.fromConfigJson(settingsFile, this);
         console = consoleUser;
 
-        // Handlers
-        ParameterHandling.register(extraParameterHandlers);
-        ParameterHandling.register(
+        // Executor for async commands
+        executor = new StrExecutor(
+                "StrInput command thread",
+                getSettings().getThreadPoolSize(),
+                getSettings().getMaxThreadPoolSize(),
+                getSettings().getCommandQueueDepth(),
+                getSettings().getRejectionPolicy(),
+                getSettings().isVirtualThreads()
+        );
+        if (getSettings().isVirtualThreads() && !executor.isVirtual()) {
+            warn("Virtual threads are enabled but not supported by this runtime."
+                    + " Falling back to the thread pool.");
+        }
+        lanes = new StrUserLanes(executor, getSettings().getCommandQueueDepth());
+
+        // Handlers, extra handlers take precedence over the defaults
+        parameterHandlers.register(extraParameterHandlers);
+        parameterHandlers.register(
+                DEFAULT_HANDLER_PRIORITY,
                 new BooleanHandler(),
                 new ByteHandler(),
                 new DoubleHandler(),
@@ -129,10 +265,14 @@ public class StrCenter {
                 new ShortHandler(),
                 new StringHandler()
         );
-        ContextHandling.register(extraContextHandlers);
+        contextHandlers.register(extraContextHandlers);
 
         // Command map (roots)
         roots = new Roots(rootCommands, this);
+
+        // Reload settings when the file changes
+        settingsWatcher = new StrSettingsWatcher(settingsFile, this);
+        settingsWatcher.start();
     }
 
     /**
@@ -179,7 +319,10 @@ public class StrCenter {
     }
 
     /**
-     * Command receiver.
+     * Command receiver.<br>
+     * If {@link StrSettings#isUserOrdering()}, async commands of users
+     * with the same {@link StrUser#getName()} run in the order they are received.<br>
+     * Queued async commands run by {@link StrInput#priority()}, console commands first.
      * @param command the command to parse
      * @param user the user that sent the command
      */
@@ -187,45 +330,53 @@ public class StrCenter {
             @NotNull final List<String> command,
             @NotNull final StrUser user
     ) {
+        onCommandAsync(command, user);
+    }
 
-        Runnable cmd = () -> {
-
-            // Store user in context for command invocation
-            Context.touch(user);
-            Context.touch(this);
-
-            // Timing
-            StopWatch s = null;
-            if (getSettings().isDebugTime()) {
-                s = new StopWatch();
-                s.start();
-            }
-
-            // Hot-load settings
-            settings = getSettings().hotLoad(settingsFile, this);
+    /**
+     * Command receiver, with the result of the command.<br>
+     * Runs the same as {@link #onCommand(List, StrUser)}.
+     * The future completes on the thread that finished the command,
+     * which is the sync thread for {@link StrInput#sync()} commands.
+     * It is already completed when it is returned if the command ran on the calling thread.
+     * @param command the command to parse
+     * @param user the user that sent the command
+     * @return a future completing with the {@link CommandResult} of the command
+     */
+    public @NotNull CompletableFuture<CommandResult> onCommandAsync(
+            @NotNull final List<String> command,
+            @NotNull final StrUser user
+    ) {
+        CommandResult.Recorder recorder = new CommandResult.Recorder(command);
 
-            // Remove empty arguments (spaces)
-            List<String> arguments = command.stream().filter(
-                    c -> !c.isBlank()
-            ).collect(Collectors.toList());
+        // Admission, before anything is parsed or queued
+        Parsed parsed = parse(command);
+        StrVirtual exact = findExact(parsed);
+        if (!admit(user, getCost(exact), recorder)) {
+            return recorder.getFuture();
+        }
+        inFlight.incrementAndGet();
+        boolean async = getSettings().isAsync();
 
-            // Fix first command argument if it has the command prefix
-            if (command.get(0).startsWith(commandPrefix)) {
-                command.set(0, command.get(0).substring(commandPrefix.length()));
-            }
+        Runnable cmd = () -> {
 
-            // Get main category
-            String mainCommand = arguments.remove(0);
-            StrVirtualCategory root = roots.get(mainCommand);
+            // Context and timing
+            recorder.start();
+            StopWatch s = prepare(user);
 
             // Run
-            if (root == null) {
-                user.sendMessage(C.RED + "Could not find root command for: " + C.BLUE + mainCommand);
-                user.playSound(StrUser.StrSoundEffect.FAILED_COMMAND);
-            } else if (!root.run(arguments)) {
-                user.playSound(StrUser.StrSoundEffect.FAILED_COMMAND);
-            } else {
-                user.playSound(StrUser.StrSoundEffect.SUCCESSFUL_COMMAND);
+            try {
+                dispatch(command, parsed, user, recorder, getSettings().snapshot());
+            } catch (RuntimeException | Error e) {
+                recorder.fail("Uncaught exception: " + e);
+                throw e;
+            } finally {
+                inFlight.decrementAndGet();
+
+                // Pool threads must not keep the user, center and recorder reachable
+                if (async) {
+                    Context.clear();
+                }
             }
 
             if (s != null) {
@@ -235,11 +386,375 @@ public class StrCenter {
 
         };
 
-        if (getSettings().isAsync()) {
-            new Thread(cmd, "StrInput command by " + user.getName()).start();
+        if (async) {
+            Runnable onReject = () -> {
+                inFlight.decrementAndGet();
+                if (shutdown) {
+                    rejectShutdown(user, recorder);
+                    return;
+                }
+                user.sendMessage(C.RED + "Too many commands are being processed, please try again later.");
+                user.playSound(StrUser.StrSoundEffect.FAILED_COMMAND);
+                warn("Rejected command by " + C.BLUE + user.getName() + C.YELLOW + " because the command queue is full.");
+                recorder.fail("Rejected because the command queue is full");
+            };
+            int priority = getPriority(user, exact);
+            if (getSettings().isUserOrdering() && isOrdered(exact)) {
+                lanes.execute(user.getName(), cmd, onReject, priority);
+            } else {
+                executor.execute(cmd, onReject, priority);
+            }
         } else {
             cmd.run();
         }
+
+        return recorder.getFuture();
+    }
+
+    /**
+     * Batch command receiver.<br>
+     * Runs all commands on the calling thread, in order, regardless of {@link StrSettings#isAsync()}.<br>
+     * The context is set up, and the settings are captured, once for the whole batch,
+     * instead of once per command as with {@link #onCommand(List, StrUser)}.
+     * A command throwing an exception fails, without stopping the rest of the batch.<br>
+     * Batches do not go through the user's lane (see {@link StrSettings#isUserOrdering()}),
+     * so they are not ordered with async commands of the same user that are queued or running.
+     * @param commands the commands to parse
+     * @param user the user that sent the commands
+     * @return for each command, a future completing with its {@link CommandResult}.
+     * These are already completed, except for {@link StrInput#sync()} commands that were deferred to the sync thread
+     */
+    public @NotNull List<CompletableFuture<CommandResult>> onCommands(
+            @NotNull final List<List<String>> commands,
+            @NotNull final StrUser user
+    ) {
+
+        // Context, settings and timing
+        StopWatch s = prepare(user);
+        StrSettings.Snapshot settings = getSettings().snapshot();
+
+        // Run
+        List<CompletableFuture<CommandResult>> results = new ArrayList<>(commands.size());
+        for (List<String> command : commands) {
+            CommandResult.Recorder recorder = new CommandResult.Recorder(command);
+            results.add(recorder.getFuture());
+            Parsed parsed = parse(command);
+            if (!admit(user, getCost(findExact(parsed)), recorder)) {
+                continue;
+            }
+            inFlight.incrementAndGet();
+            try {
+                dispatch(command, parsed, user, recorder, settings);
+            } catch (RuntimeException e) {
+                recorder.fail("Uncaught exception: " + e);
+                printException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        if (s != null) {
+            s.stop();
+            debug(C.GREEN + "Batch of " + C.BLUE + commands.size() + C.GREEN + " commands sent by " + C.BLUE + user.getName() + C.GREEN + " took " + C.BLUE + s.getTime() + "ms");
+        }
+
+        return results;
+    }
+
+    /**
+     * Get whether a command runs in order with other commands of its user.<br>
+     * Only commands entered by their exact names can opt out, see {@link StrInput#ordered()}.
+     * @param exact the virtual the command exactly names
+     * @return true if the command should run in order
+     */
+    private boolean isOrdered(@Nullable final StrVirtual exact) {
+        return !(exact instanceof StrVirtualCommand) || exact.getAnnotation().ordered();
+    }
+
+    /**
+     * Get the amount of rate limit tokens charged when a command is admitted.<br>
+     * Commands entered by their exact names pay their full {@link StrInput#cost()} up front,
+     * other commands pay 1 and the rest once they are resolved (see {@link StrVirtualCommand#run(List)}).
+     * @param exact the virtual the command exactly names
+     * @return the cost
+     */
+    private int getCost(@Nullable final StrVirtual exact) {
+        return exact instanceof StrVirtualCommand ? Math.max(1, exact.getAnnotation().cost()) : 1;
+    }
+
+    /**
+     * Get the priority of a command when it is queued.<br>
+     * Commands from the console get the highest priority,
+     * other commands that of the deepest virtual they exactly name.
+     * @param user the user sending the command
+     * @param exact the virtual the command exactly names
+     * @return the priority
+     */
+    private int getPriority(@NotNull final StrUser user, @Nullable final StrVirtual exact) {
+        if (user == console) {
+            return Integer.MAX_VALUE;
+        }
+        return exact == null ? 0 : exact.getPriority();
+    }
+
+    /**
+     * Split a command into its root category and the arguments for it.
+     * @param command the command
+     * @return the parsed command
+     */
+    private @NotNull Parsed parse(@NotNull final List<String> command) {
+
+        // Remove empty arguments (spaces)
+        List<String> arguments = new ArrayList<>(command.size());
+        for (String argument : command) {
+            if (!argument.isBlank()) {
+                arguments.add(argument);
+            }
+        }
+        if (arguments.isEmpty()) {
+            return new Parsed(null, null, arguments);
+        }
+
+        // Get main category, without the command prefix
+        String mainCommand = arguments.remove(0);
+        if (mainCommand.startsWith(commandPrefix)) {
+            mainCommand = mainCommand.substring(commandPrefix.length());
+        }
+        return new Parsed(roots.get(mainCommand), mainCommand, arguments);
+    }
+
+    /**
+     * Find the deepest virtual a command resolves to by exact names only, without running anything.
+     * @param parsed the parsed command
+     * @return the exactly named command, else the deepest exactly named category,
+     * or {@code null} if the root is not found
+     */
+    private @Nullable StrVirtual findExact(@NotNull final Parsed parsed) {
+        return parsed.root == null ? null : parsed.root.findExact(parsed.arguments);
+    }
+
+    /**
+     * Take rate limit tokens from a user (see {@link StrSettings#isRateLimiting()}).<br>
+     * The console is never limited. If there are not enough tokens,
+     * the user is told to slow down and the command fails.
+     * Commands are also not admitted once the center is {@link #shutdown() shutting down}.
+     * @param user the user sending the command
+     * @param cost the amount of tokens to take
+     * @param recorder the recorder for the result of the command
+     * @return true if the command may run
+     */
+    public boolean admit(
+            @NotNull final StrUser user,
+            final int cost,
+            @NotNull final CommandResult.Recorder recorder
+    ) {
+        if (shutdown) {
+            rejectShutdown(user, recorder);
+            return false;
+        }
+        StrSettings s = getSettings();
+        if (!s.isRateLimiting() || user == console || rateLimiter.tryAcquire(
+                user.getName(),
+                cost,
+                s.getRateLimitPerSecond(),
+                s.getRateLimitBurst()
+        )) {
+            recorder.charge(cost);
+            return true;
+        }
+        user.sendMessage(C.RED + "You are sending commands too fast, please slow down.");
+        user.playSound(StrUser.StrSoundEffect.FAILED_COMMAND);
+        recorder.fail("Rate limited");
+        return false;
+    }
+
+    /**
+     * Reject a command because the center is shutting down.
+     * @param user the user sending the command
+     * @param recorder the recorder for the result of the command
+     */
+    private void rejectShutdown(
+            @NotNull final StrUser user,
+            @NotNull final CommandResult.Recorder recorder
+    ) {
+        user.sendMessage(C.RED + "The command system is shutting down, please try again later.");
+        user.playSound(StrUser.StrSoundEffect.FAILED_COMMAND);
+        recorder.fail("Shutting down");
+    }
+
+    /**
+     * Shut down this center.<br>
+     * New commands are rejected. Queued and running commands still run,
+     * but commands waiting for the user to pick an option are cancelled.
+     * The settings file is no longer watched.
+     * Use {@link #awaitTermination(Duration)} to wait for the commands to finish.
+     */
+    public void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        executor.shutdown();
+        invocations.shutdown();
+        settingsWatcher.stop();
+        info(C.GREEN + "Shutting down with " + C.BLUE + getInFlight() + C.GREEN + " commands in flight");
+    }
+
+    /**
+     * Wait for commands to finish after a {@link #shutdown()}.<br>
+     * Waits for the queued and running async commands, the sync commands they deferred
+     * (see {@link #runDeferred(Runnable)}), and the running and waiting {@link #getInvocations() invocations}.
+     * While waiting, {@link #awaitingTermination()} is called regularly,
+     * so sync commands can run if this is called from the thread that runs them.
+     * @param timeout the maximal time to wait
+     * @return true if all commands finished, false if the timeout passed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(@NotNull final Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            long left = deadline - System.nanoTime();
+            Duration step = Duration.ofNanos(Math.max(0, Math.min(left, TimeUnit.MILLISECONDS.toNanos(TERMINATION_POLL_MILLIS))));
+            boolean pool = executor.awaitTermination(step);
+            if (pool && isIdle()) {
+                return true;
+            }
+            if (left <= 0) {
+                warn("Timed out waiting for " + C.BLUE + getInFlight() + C.YELLOW + " commands in flight");
+                return false;
+            }
+            awaitingTermination();
+            if (pool) {
+                Thread.sleep(Math.max(1, step.toMillis()));
+            }
+        }
+    }
+
+    /**
+     * Called regularly by {@link #awaitTermination(Duration)} while it waits, on the thread waiting.<br>
+     * Centers that queue sync commands (see {@link #runSync(Runnable)}) can run them here
+     * when called from the thread that runs them, as that thread no longer gets to them while it waits.
+     * Does nothing by default.
+     */
+    protected void awaitingTermination() {
+    }
+
+    /**
+     * Get whether no commands are in flight, running or waiting for user input.
+     * @return true if idle
+     */
+    private boolean isIdle() {
+        return inFlight.get() == 0 && invocations.getRunning() == 0 && invocations.getWaiting() == 0;
+    }
+
+    /**
+     * Get whether this center is shutting down.
+     * @return true after {@link #shutdown()}
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Get the amount of commands in flight: accepted, and not yet finished.
+     * This includes queued commands, and sync commands waiting to run.
+     * @return the amount of commands in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Prepare the current thread for running commands of a user.<br>
+     * Stores the user and center in the context.
+     * @param user the user that sent the command(s)
+     * @return a started stopwatch if {@link StrSettings#isDebugTime()}, else {@code null}
+     */
+    private StopWatch prepare(@NotNull final StrUser user) {
+
+        // Store user in context for command invocation
+        Context.touch(user);
+        Context.touch(this);
+
+        // Timing
+        StopWatch s = null;
+        if (getSettings().isDebugTime()) {
+            s = new StopWatch();
+            s.start();
+        }
+
+        return s;
+    }
+
+    /**
+     * Run a single command. The context must be {@link #prepare(StrUser) prepared}.
+     * @param command the command as it was sent
+     * @param parsed the parsed command, of which the arguments are consumed
+     * @param user the user that sent the command
+     * @param recorder the recorder for the result of the command
+     * @param settings the settings the command sees throughout
+     * @return true if the command ran successfully
+     */
+    private boolean dispatch(
+            @NotNull final List<String> command,
+            @NotNull final Parsed parsed,
+            @NotNull final StrUser user,
+            @NotNull final CommandResult.Recorder recorder,
+            @NotNull final StrSettings.Snapshot settings
+    ) {
+
+        // Store recorder in context for the virtuals to record into
+        recorder.dispatch();
+        Context.touch(recorder);
+
+        // Captured once, so the command sees the same settings throughout
+        Context.touch(settings);
+
+        String mainCommand = parsed.mainCommand;
+        if (mainCommand == null) {
+            user.sendMessage(C.RED + "No command entered");
+            user.playSound(StrUser.StrSoundEffect.FAILED_COMMAND);
+            recorder.fail("No command entered");
+            return false;
+        }
+
+        // Run
+        StrVirtualCategory root = parsed.root;
+        if (root == null) {
+            user.sendMessage(C.RED + "Could not find root command for: " + C.BLUE + mainCommand);
+            user.playSound(StrUser.StrSoundEffect.FAILED_COMMAND);
+            recorder.fail("Could not find root command for: " + mainCommand);
+            return false;
+        }
+
+        // Context values are shared by all parameters of the command
+        boolean opened = contextCache.open();
+        boolean ran;
+        try {
+            ran = root.run(parsed.arguments);
+        } finally {
+            if (opened) {
+                contextCache.close();
+            }
+        }
+
+        if (!ran) {
+            user.playSound(StrUser.StrSoundEffect.FAILED_COMMAND);
+            recorder.fail("Could not find a command matching: " + String.join(" ", command));
+            return false;
+        }
+
+        // The command was found, but failed (for example, by its parameters or rate limit)
+        if (recorder.isFailed()) {
+            return false;
+        }
+        user.playSound(StrUser.StrSoundEffect.SUCCESSFUL_COMMAND);
+
+        // Sync commands complete the recorder when they ran
+        if (!recorder.isDeferred()) {
+            recorder.succeed();
+        }
+        return true;
     }
 
     /**
@@ -282,6 +797,22 @@ public class StrCenter {
         }
     }
 
+    /**
+     * Run a command sync with {@link #runSync(Runnable)},
+     * counting it as in flight until it ran (see {@link #awaitTermination(Duration)}).
+     * @param runnable the command to run
+     */
+    public void runDeferred(@NotNull final Runnable runnable) {
+        inFlight.incrementAndGet();
+        runSync(() -> {
+            try {
+                runnable.run();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
     /**
      * Run a function sync (on the main thread, when needed).
      *
@@ -322,6 +853,16 @@ public class StrCenter {
         return result;
     }
 
+    /**
+     * Compile the options of all command categories again
+     * (see {@link StrVirtualCategory#recompile()}).
+     */
+    public void recompile() {
+        for (StrVirtualCategory root : new HashSet<>(roots.values())) {
+            root.recompile();
+        }
+    }
+
     /**
      * Print out an exception.
      * @param e the exception to print
@@ -341,6 +882,19 @@ public class StrCenter {
         return commandPrefix;
     }
 
+    /**
+     * A command split into its root category and the arguments for it, with empty arguments (spaces) removed.
+     * @param root the root category, or {@code null} if there is none with the name
+     * @param mainCommand the name of the root, without the command prefix,
+     *                    or {@code null} if no command was entered
+     * @param arguments the arguments for the root, consumed when the command runs
+     */
+    private record Parsed(
+            @Nullable StrVirtualCategory root,
+            @Nullable String mainCommand,
+            @NotNull List<String> arguments
+    ) { }
+
     /**
      * Command roots mapping.<br>
      * Functions just as a normal
@@ -383,6 +937,7 @@ public class StrCenter {
 
                 // Actual virtual category (root)
                 StrVirtualCategory root = new StrVirtualCategory(null, r);
+                warnCosts(root, center);
 
                 // Add names to root map
                 root.getNames().forEach(n -> {
@@ -421,23 +976,43 @@ public class StrCenter {
                 );
             }
         }
+
+        /**
+         * Warn about commands costing more rate limit tokens than users can save up,
+         * as those can never run while {@link StrSettings#isRateLimiting() rate limiting}.
+         * @param category the category to check, including its subcategories
+         * @param center the command center controlling the category
+         */
+        private static void warnCosts(
+                @NotNull final StrVirtualCategory category,
+                @NotNull final StrCenter center
+        ) {
+            int burst = center.getSettings().getRateLimitBurst();
+            for (StrVirtualCommand command : category.getCommands()) {
+                if (command.getAnnotation().cost() > burst) {
+                    center.warn("Command " + C.BLUE + command.getPath() + C.YELLOW + " costs "
+                            + C.BLUE + command.getAnnotation().cost() + C.YELLOW + " rate limit tokens, more than the burst of "
+                            + C.BLUE + burst + C.YELLOW + ". It can not run while rate limiting is enabled.");
+                }
+            }
+            for (StrVirtualCategory subCat : category.getSubCats()) {
+                warnCosts(subCat, center);
+            }
+        }
     }
 
     /**
-     * String parameter handling.
+     * String parameter handling, using the handlers of the center of the current thread.
      * @author Sjoerd van de Goor
      * @since v0.1
      */
     public static class ParameterHandling {
 
         /**
-         * Parameter handlers available.
-         */
-        private static final List<StrParameterHandler<?>>
-                PARAMETER_HANDLERS = new ArrayList<>();
-
-        /**
-         * Get handler for a type.
+         * Get handler for a type.<br>
+         * Handlers are resolved as documented in {@link HandlerRegistry}.
+         * The result is cached per type until new handlers are registered.
+         * Enums without a registered handler use an {@link EnumHandler}.
          * @param type the type to get the handler for
          * @return the parameter handler for the type
          * @throws StrNoParameterHandlerException
@@ -446,22 +1021,31 @@ public class StrCenter {
         public static @NotNull StrParameterHandler<?> getHandler(
                 @NotNull final Class<?> type
         ) throws StrNoParameterHandlerException {
-            for (StrParameterHandler<?> parameterHandler : PARAMETER_HANDLERS) {
-                if (parameterHandler.supports(type)) {
-                    return parameterHandler;
-                }
+            StrCenter center = Context.center();
+            StrParameterHandler<?> handler = center == null ? null : center.getParameterHandlers().resolve(type);
+            if (handler == null) {
+                handler = EnumHandler.of(type);
             }
-            throw new StrNoParameterHandlerException(type);
+            if (handler == null) {
+                throw new StrNoParameterHandlerException(type);
+            }
+            return handler;
         }
 
         /**
-         * Register new parameter handlers.
+         * Register new parameter handlers to the center of the current thread.
+         * Handlers that are already registered (the same instance) are ignored, see {@link HandlerRegistry}.
          * @param handlers the parameter handlers
+         * @throws IllegalStateException if there is no center in the context
          */
         public static void register(
                 @NotNull final StrParameterHandler<?>... handlers
         ) {
-            PARAMETER_HANDLERS.addAll(List.of(handlers));
+            StrCenter center = Context.center();
+            if (center == null) {
+                throw new IllegalStateException("No StrCenter in the context of this thread");
+            }
+            center.getParameterHandlers().register(handlers);
         }
 
         /**
@@ -486,20 +1070,16 @@ public class StrCenter {
     }
 
     /**
-     * String context handling.
+     * String context handling, using the handlers of the center of the current thread.
      * @author Sjoerd van de Goor
      * @since v0.1
      */
     public static class ContextHandling {
 
         /**
-         * Context handler list.
-         */
-        private static final List<StrContextHandler<?>>
-                CONTEXT_HANDLERS = new ArrayList<>();
-
-        /**
-         * Get context handler for a type.
+         * Get context handler for a type.<br>
+         * Handlers are resolved as documented in {@link HandlerRegistry}.
+         * The result is cached per type until new handlers are registered.
          * @param type the type to get the context handler for
          * @return the context handler for the type
          * @throws StrNoContextHandlerException
@@ -508,22 +1088,28 @@ public class StrCenter {
         public static @NotNull StrContextHandler<?> getContextHandler(
                 @NotNull final Class<?> type
         ) throws StrNoContextHandlerException {
-            for (StrContextHandler<?> parameterHandler : CONTEXT_HANDLERS) {
-                if (parameterHandler.supports(type)) {
-                    return parameterHandler;
-                }
+            StrCenter center = Context.center();
+            StrContextHandler<?> handler = center == null ? null : center.getContextHandlers().resolve(type);
+            if (handler == null) {
+                throw new StrNoContextHandlerException(type);
             }
-            throw new StrNoContextHandlerException(type);
+            return handler;
         }
 
         /**
-         * Register new context handlers.
+         * Register new context handlers to the center of the current thread.
+         * Handlers that are already registered (the same instance) are ignored, see {@link HandlerRegistry}.
          * @param handlers the context handlers
+         * @throws IllegalStateException if there is no center in the context
          */
         public static void register(
                 @NotNull final StrContextHandler<?>... handlers
         ) {
-            CONTEXT_HANDLERS.addAll(List.of(handlers));
+            StrCenter center = Context.center();
+            if (center == null) {
+                throw new IllegalStateException("No StrCenter in the context of this thread");
+            }
+            center.getContextHandlers().register(handlers);
         }
 
         /**
@@ -50,6 +50,18 @@ public @interface StrInput {
      */
     String DEFAULT_NAME = "";
 
+    /**
+     * The default priority, which inherits the priority of the parent category
+     * (or {@code 0} for root categories).
+     */
+    int INHERIT_PRIORITY = Integer.MIN_VALUE;
+
+    /**
+     * The default match threshold, which inherits the threshold of the parent category
+     * (or {@link StrSettings#getMatchThreshold()} for root categories).
+     */
+    double INHERIT_THRESHOLD = -1;
+
     /**
      * The name of this command, which is the Method's name by default.
      * @return the name of the command / category
@@ -85,9 +97,96 @@ public @interface StrInput {
 
     /**
      * If the node's functions must be run on the main thread (i.e. sync), set this to true.<br>
-     * Defaults to false. Requires you to overwrite the {@link StrCenter#runSync(Runnable)} method.
+     * Defaults to false. Commands in a sync category are always sync.
+     * Requires you to overwrite the {@link StrCenter#runSync(Runnable)} method.
      *
      * @return true if this category's commands or command should be run in sync
      */
     boolean sync() default false;
+
+    /**
+     * The amount of rate limit tokens this command costs (see {@link StrSettings#isRateLimiting()}).<br>
+     * Defaults to 1. Set this higher for heavy commands. Only used on commands.
+     *
+     * @return the cost of running this command
+     */
+    int cost() default 1;
+
+    /**
+     * Seconds after which this command is cancelled, by interrupting the thread running it.<br>
+     * Defaults to -1, which uses {@link StrSettings#getCommandTimeout()}. Set to 0 for no timeout.
+     * Only used for async commands (see {@link StrSettings#isAsync()}), not for {@link #sync()} commands,
+     * as those run on threads that should not be interrupted. Only used on commands.
+     *
+     * @return the timeout of this command in seconds
+     */
+    int timeout() default -1;
+
+    /**
+     * Whether this command waits for earlier commands of the same user
+     * to finish first (see {@link StrSettings#isUserOrdering()}).<br>
+     * Defaults to true. Set this to false for commands that must run right away, like cancelling.
+     * Only applies if the command is entered by its exact name. Only used on commands.
+     *
+     * @return true if this command runs in order with other commands of the user
+     */
+    boolean ordered() default true;
+
+    /**
+     * The priority of this command or category's commands when async commands are queued.
+     * Higher priorities run first.<br>
+     * Defaults to {@link #INHERIT_PRIORITY}, which uses the priority of the parent category.
+     * Commands from the console always run first.
+     * Only applies if the command (or category) is entered by its exact name.
+     *
+     * @return the priority of this command / category
+     */
+    int priority() default INHERIT_PRIORITY;
+
+    /**
+     * The threshold matching should achieve before an option of this category is matched
+     * (see {@link StrSettings#getMatchThreshold()}).<br>
+     * Defaults to {@link #INHERIT_THRESHOLD}, which uses the threshold of the parent category.
+     * Set this higher for strict matching, for example in admin categories. Only used on categories.
+     *
+     * @return the match threshold of this category
+     */
+    double matchThreshold() default INHERIT_THRESHOLD;
+
+    /**
+     * Whether null is allowed as input for the parameters of this command or category's commands
+     * (see {@link StrSettings#isAllowNullInput()}).<br>
+     * Defaults to {@link Setting#INHERIT}, which uses the setting of the parent category.
+     *
+     * @return whether null input is allowed
+     */
+    Setting nullInput() default Setting.INHERIT;
+
+    /**
+     * Whether the first option is picked when a parameter of this command or category's commands
+     * has multiple options (see {@link StrSettings#isPickFirstOnMultiple()}).<br>
+     * Defaults to {@link Setting#INHERIT}, which uses the setting of the parent category.
+     *
+     * @return whether the first option is picked
+     */
+    Setting pickFirst() default Setting.INHERIT;
+
+    /**
+     * A setting that can be enabled or disabled for a command or category,
+     * or inherited from the parent category (and finally {@link StrSettings}).
+     */
+    enum Setting {
+        /**
+         * Use the setting of the parent category.
+         */
+        INHERIT,
+        /**
+         * Enabled for this command or category.
+         */
+        ENABLED,
+        /**
+         * Disabled for this command or category.
+         */
+        DISABLED
+    }
 }
@@ -19,15 +19,21 @@ package nl.codevs.strinput.system;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import nl.codevs.strinput.system.execution.StrExecutor;
 import nl.codevs.strinput.system.util.C;
 import nl.codevs.strinput.system.util.NGram;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * StrInput settings.
@@ -58,6 +64,41 @@ public final class StrSettings implements StrCategory {
      */
     private static final double DEFAULT_MATCH_THRESHOLD = 0.3;
 
+    /**
+     * The default amount of threads kept alive for async commands.
+     */
+    private static final int DEFAULT_THREAD_POOL_SIZE = 4;
+
+    /**
+     * The default maximal amount of threads for async commands.
+     */
+    private static final int DEFAULT_MAX_THREAD_POOL_SIZE = 16;
+
+    /**
+     * The default amount of async commands that can wait for a thread.
+     */
+    private static final int DEFAULT_COMMAND_QUEUE_DEPTH = 128;
+
+    /**
+     * Default amount of rate limit tokens refilled per second.
+     */
+    private static final int DEFAULT_RATE_LIMIT_PER_SECOND = 5;
+
+    /**
+     * Default maximal amount of rate limit tokens.
+     */
+    private static final int DEFAULT_RATE_LIMIT_BURST = 10;
+
+    /**
+     * Default seconds after which commands are cancelled.
+     */
+    private static final int DEFAULT_COMMAND_TIMEOUT = 60;
+
+    /**
+     * Default milliseconds per tick sync commands may take.
+     */
+    private static final int DEFAULT_SYNC_BUDGET = 5;
+
     /**
      * The last time the settings file was modified
      * (to check for re-saving).
@@ -84,6 +125,110 @@ public final class StrSettings implements StrCategory {
 
     }
 
+    /**
+     * Whether these settings changed since they were last saved.
+     */
+    private transient volatile boolean dirty;
+
+    /**
+     * When these settings last changed ({@link System#nanoTime()}).
+     */
+    private transient volatile long changedAt;
+
+    /**
+     * The version of these settings, incremented after each change.
+     */
+    private final transient AtomicLong version = new AtomicLong();
+
+    /**
+     * The last snapshot of these settings, or {@code null} if none was taken.
+     * Outdated if its {@link Snapshot#version} is not the current {@link #version}.
+     */
+    private transient volatile Snapshot snapshot;
+
+    /**
+     * Mark these settings as changed, so they are saved in the background.
+     * Must be called after the change is made.
+     */
+    private void changed() {
+        version.incrementAndGet();
+        changedAt = System.nanoTime();
+        dirty = true;
+    }
+
+    /**
+     * Get an immutable snapshot of these settings.<br>
+     * The snapshot is only taken again after the settings change,
+     * so this does not allocate in between.
+     * The version is read before the settings, so a change made while a snapshot is taken
+     * always makes that snapshot outdated, and it is never returned after the change.
+     * @return the snapshot
+     */
+    public @NotNull Snapshot snapshot() {
+        long current = version.get();
+        Snapshot last = snapshot;
+        if (last != null && last.version == current) {
+            return last;
+        }
+        last = new Snapshot(this, current);
+        snapshot = last;
+        return last;
+    }
+
+    /**
+     * @return true if these settings changed since they were last saved
+     */
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * @return when these settings last changed ({@link System#nanoTime()})
+     */
+    long getChangedAt() {
+        return changedAt;
+    }
+
+    /**
+     * Mark these settings as saved. Call this before serializing them,
+     * so changes made during the save mark them as changed again.
+     */
+    void clean() {
+        dirty = false;
+    }
+
+    /**
+     * Take over all values of other settings, for example after they were reloaded from the settings file.<br>
+     * This instance stays the one in use (it is also the settings command category),
+     * so commands keep changing the settings the center reads.
+     * Snapshots taken before are outdated, but the settings are not marked as changed,
+     * as the values came from the file.
+     * Constant (final) values are not copied.
+     * @param other the settings to copy the values of
+     */
+    synchronized void applyFrom(@NotNull final StrSettings other) {
+        for (Field field : StrSettings.class.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || Modifier.isFinal(modifiers)) {
+                continue;
+            }
+            try {
+                field.set(this, field.get(other));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Could not copy setting " + field.getName(), e);
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Mark these settings as not saved, without changing them.
+     * Call this when a save failed, so it is tried again.
+     */
+    void markDirty() {
+        dirty = true;
+    }
+
     /**
      * Set the amount of times a user can re-try picking an option.
      * @param times the amount of times a user can re-try picking an option
@@ -100,6 +245,7 @@ public final class StrSettings implements StrCategory {
                     final int times
     ) {
         pickingAmount = times;
+        changed();
         user().sendMessage(C.GREEN + "Set " + C.BLUE + "option picking amount " + C.GREEN + "to: " + C.BLUE + pickingAmount);
     }
     /**
@@ -129,6 +275,7 @@ public final class StrSettings implements StrCategory {
                     final int time
     ) {
         pickingTimeout = time;
+        changed();
         user().sendMessage(C.GREEN + "Set " + C.BLUE + "option picking time " + C.GREEN + "to: " + C.BLUE + pickingTimeout);
     }
     /**
@@ -158,6 +305,7 @@ public final class StrSettings implements StrCategory {
                     final Double threshold
     ) {
         matchThreshold = threshold;
+        changed();
         user().sendMessage(C.GREEN + "Set " + C.BLUE + "matching threshold " + C.GREEN + "to: " + C.BLUE + matchThreshold);
     }
 
@@ -191,6 +339,7 @@ public final class StrSettings implements StrCategory {
                     final Boolean enable
     ) {
         settingsCommands = enable == null ? !settingsCommands : enable;
+        changed();
         user().sendMessage(C.GREEN + "After a restart, " + C.BLUE + "settings commands " + C.GREEN + "will be: " + C.BLUE + settingsCommands);
     }
 
@@ -223,6 +372,7 @@ public final class StrSettings implements StrCategory {
                     final Boolean enable
     ) {
         async = enable == null ? !async : enable;
+        changed();
         user().sendMessage(C.GREEN + "Set " + C.BLUE + "async " + C.GREEN + "to: " + C.BLUE + async);
     }
 
@@ -238,6 +388,372 @@ public final class StrSettings implements StrCategory {
         return async;
     }
 
+    /**
+     * Setting command.
+     * @param enable whether to enable it or not
+     */
+    @StrInput(description = "Should async commands of the same user"
+            + " run one at a time, in the order they were sent?")
+    public void setUserOrdering(
+            @Param(
+                    description = "Whether to set this setting"
+                            + " to true or false",
+                    defaultValue = "toggle",
+                    name = "enable"
+            )
+                    final Boolean enable
+    ) {
+        userOrdering = enable == null ? !userOrdering : enable;
+        changed();
+        user().sendMessage(C.GREEN + "Set " + C.BLUE + "user ordering " + C.GREEN + "to: " + C.BLUE + userOrdering);
+    }
+
+    /**
+     * Whether async commands of the same user run in order, one at a time.
+     */
+    private boolean userOrdering = true;
+
+    /**
+     * @return true if async commands of the same user
+     * run one at a time, in the order they were sent
+     */
+    public boolean isUserOrdering() {
+        return userOrdering;
+    }
+
+    /**
+     * Setting command.
+     * @param enable whether to enable it or not
+     */
+    @StrInput(description = "Should async commands each run on a virtual thread"
+            + " (Java 21+) instead of on the thread pool?")
+    public void setVirtualThreads(
+            @Param(
+                    description = "Whether to set this setting"
+                            + " to true or false",
+                    defaultValue = "toggle",
+                    name = "enable"
+            )
+                    final Boolean enable
+    ) {
+        virtualThreads = enable == null ? !virtualThreads : enable;
+        changed();
+        user().sendMessage(C.GREEN + "After a restart, " + C.BLUE + "virtual threads " + C.GREEN + "will be: " + C.BLUE + virtualThreads);
+        if (virtualThreads && !StrExecutor.supportsVirtualThreads()) {
+            user().sendMessage(C.YELLOW + "This runtime does not support virtual threads, the thread pool is used instead.");
+        }
+    }
+
+    /**
+     * Whether async commands run on virtual threads instead of the thread pool.
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * @return true if async commands should run on virtual threads
+     * instead of on the thread pool
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Set the amount of threads kept alive to run async commands.
+     * @param size the amount of threads
+     */
+    @StrInput(description = "How many threads should be kept alive"
+            + " for running async commands?")
+    public void setThreadPoolSize(
+            @Param(
+                    description = "The amount of threads",
+                    defaultValue = "4",
+                    name = "size"
+            )
+                    final int size
+    ) {
+        threadPoolSize = Math.max(1, size);
+        changed();
+        user().sendMessage(C.GREEN + "After a restart, " + C.BLUE + "thread pool size " + C.GREEN + "will be: " + C.BLUE + threadPoolSize);
+    }
+
+    /**
+     * The amount of threads kept alive to run async commands.
+     */
+    private int threadPoolSize = DEFAULT_THREAD_POOL_SIZE;
+
+    /**
+     * @return the amount of threads kept alive to run async commands
+     */
+    public int getThreadPoolSize() {
+        return threadPoolSize;
+    }
+
+    /**
+     * Set the maximal amount of threads running async commands.
+     * @param size the maximal amount of threads
+     */
+    @StrInput(description = "How many threads may run async commands"
+            + " when the queue is full? Equal to the pool size for a fixed pool.")
+    public void setMaxThreadPoolSize(
+            @Param(
+                    description = "The maximal amount of threads",
+                    defaultValue = "16",
+                    name = "size"
+            )
+                    final int size
+    ) {
+        maxThreadPoolSize = Math.max(1, size);
+        changed();
+        user().sendMessage(C.GREEN + "After a restart, " + C.BLUE + "maximal thread pool size " + C.GREEN + "will be: " + C.BLUE + maxThreadPoolSize);
+    }
+
+    /**
+     * The maximal amount of threads running async commands.
+     */
+    private int maxThreadPoolSize = DEFAULT_MAX_THREAD_POOL_SIZE;
+
+    /**
+     * @return the maximal amount of threads running async commands
+     */
+    public int getMaxThreadPoolSize() {
+        return maxThreadPoolSize;
+    }
+
+    /**
+     * Set the amount of async commands that can wait for a thread.
+     * @param depth the queue depth
+     */
+    @StrInput(description = "How many async commands can wait for a thread?")
+    public void setCommandQueueDepth(
+            @Param(
+                    description = "The queue depth",
+                    defaultValue = "128",
+                    name = "depth"
+            )
+                    final int depth
+    ) {
+        commandQueueDepth = Math.max(1, depth);
+        changed();
+        user().sendMessage(C.GREEN + "After a restart, " + C.BLUE + "command queue depth " + C.GREEN + "will be: " + C.BLUE + commandQueueDepth);
+    }
+
+    /**
+     * The amount of async commands that can wait for a thread.
+     * Also the amount of commands one user can have in their lane (see {@link #isUserOrdering()}).
+     */
+    private int commandQueueDepth = DEFAULT_COMMAND_QUEUE_DEPTH;
+
+    /**
+     * @return the amount of async commands that can wait for a thread
+     */
+    public int getCommandQueueDepth() {
+        return commandQueueDepth;
+    }
+
+    /**
+     * Set the policy for commands sent while the command queue is full.
+     * @param policy the name of the policy
+     */
+    @StrInput(description = "What to do with async commands when the queue is full?"
+            + " (reject, caller_runs or discard_oldest)")
+    public void setRejectionPolicy(
+            @Param(
+                    description = "The policy",
+                    defaultValue = "reject",
+                    name = "policy"
+            )
+                    final String policy
+    ) {
+        for (StrExecutor.RejectionPolicy value : StrExecutor.RejectionPolicy.values()) {
+            if (value.name().equalsIgnoreCase(policy)) {
+                rejectionPolicy = value;
+                changed();
+                user().sendMessage(C.GREEN + "After a restart, " + C.BLUE + "rejection policy " + C.GREEN + "will be: " + C.BLUE + rejectionPolicy);
+                return;
+            }
+        }
+        user().sendMessage(C.RED + "Unknown rejection policy: " + C.BLUE + policy);
+    }
+
+    /**
+     * The policy for commands sent while the command queue is full.
+     */
+    private StrExecutor.RejectionPolicy rejectionPolicy = StrExecutor.RejectionPolicy.REJECT;
+
+    /**
+     * @return the policy for commands sent while the command queue is full
+     */
+    public @NotNull StrExecutor.RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy == null ? StrExecutor.RejectionPolicy.REJECT : rejectionPolicy;
+    }
+
+    /**
+     * Set the milliseconds per tick sync commands may take.
+     * @param millis the budget in milliseconds
+     */
+    @StrInput(description = "How many milliseconds per tick may sync commands take"
+            + " before the rest waits for the next tick?")
+    public void setSyncBudget(
+            @Param(
+                    description = "The budget in milliseconds",
+                    defaultValue = "5",
+                    name = "millis"
+            )
+                    final int millis
+    ) {
+        syncBudget = Math.max(0, millis);
+        changed();
+        user().sendMessage(C.GREEN + "Set " + C.BLUE + "sync budget " + C.GREEN + "to: " + C.BLUE + syncBudget + "ms");
+    }
+
+    /**
+     * Milliseconds per tick sync commands may take.
+     */
+    private int syncBudget = DEFAULT_SYNC_BUDGET;
+
+    /**
+     * @return milliseconds per tick sync commands may take,
+     * for centers that queue sync work (at least one command runs per tick)
+     */
+    public int getSyncBudget() {
+        return syncBudget;
+    }
+
+    /**
+     * Set the seconds after which async commands are cancelled.
+     * @param seconds the timeout in seconds
+     */
+    @StrInput(description = "After how many seconds should running commands"
+            + " be cancelled? (0 for never)")
+    public void setCommandTimeout(
+            @Param(
+                    description = "The timeout in seconds",
+                    defaultValue = "60",
+                    name = "seconds"
+            )
+                    final int seconds
+    ) {
+        commandTimeout = Math.max(0, seconds);
+        changed();
+        user().sendMessage(C.GREEN + "Set " + C.BLUE + "command timeout " + C.GREEN + "to: " + C.BLUE + commandTimeout + "s");
+    }
+
+    /**
+     * Seconds after which commands are cancelled.
+     */
+    private int commandTimeout = DEFAULT_COMMAND_TIMEOUT;
+
+    /**
+     * @return seconds after which commands without their own
+     * {@link StrInput#timeout()} are cancelled, {@code 0} for never
+     */
+    public int getCommandTimeout() {
+        return commandTimeout;
+    }
+
+    /**
+     * Cancel the running commands of the user.
+     */
+    @StrInput(description = "Cancel your commands that are running", ordered = false)
+    public void cancel() {
+        int cancelled = center().getInvocations().cancel(user().getName());
+        user().sendMessage(C.GREEN + "Cancelled " + C.BLUE + cancelled + C.GREEN + " running command" + (cancelled == 1 ? "" : "s"));
+    }
+
+    /**
+     * Setting command.
+     * @param enable whether to enable it or not
+     */
+    @StrInput(description = "Should the amount of commands"
+            + " users can send be limited?")
+    public void setRateLimiting(
+            @Param(
+                    description = "Whether to set this setting"
+                            + " to true or false",
+                    defaultValue = "toggle",
+                    name = "enable"
+            )
+                    final Boolean enable
+    ) {
+        rateLimiting = enable == null ? !rateLimiting : enable;
+        changed();
+        user().sendMessage(C.GREEN + "Set " + C.BLUE + "rate limiting " + C.GREEN + "to: " + C.BLUE + rateLimiting);
+    }
+
+    /**
+     * Whether the amount of commands users can send is limited.
+     */
+    private boolean rateLimiting = false;
+
+    /**
+     * @return true if the amount of commands users (except the console) can send is limited
+     */
+    public boolean isRateLimiting() {
+        return rateLimiting;
+    }
+
+    /**
+     * Set the amount of rate limit tokens users get back each second.
+     * @param amount the amount of tokens
+     */
+    @StrInput(description = "How many rate limit tokens"
+            + " should users get back each second?")
+    public void setRateLimitPerSecond(
+            @Param(
+                    description = "The amount of tokens",
+                    defaultValue = "5",
+                    name = "amount"
+            )
+                    final int amount
+    ) {
+        rateLimitPerSecond = Math.max(1, amount);
+        changed();
+        user().sendMessage(C.GREEN + "Set " + C.BLUE + "rate limit per second " + C.GREEN + "to: " + C.BLUE + rateLimitPerSecond);
+    }
+
+    /**
+     * The amount of rate limit tokens users get back each second.
+     */
+    private int rateLimitPerSecond = DEFAULT_RATE_LIMIT_PER_SECOND;
+
+    /**
+     * @return the amount of rate limit tokens users get back each second
+     */
+    public int getRateLimitPerSecond() {
+        return rateLimitPerSecond;
+    }
+
+    /**
+     * Set the maximal amount of rate limit tokens users can have.
+     * @param amount the amount of tokens
+     */
+    @StrInput(description = "How many rate limit tokens can users save up"
+            + " (the amount of commands they can send at once)?")
+    public void setRateLimitBurst(
+            @Param(
+                    description = "The amount of tokens",
+                    defaultValue = "10",
+                    name = "amount"
+            )
+                    final int amount
+    ) {
+        rateLimitBurst = Math.max(1, amount);
+        changed();
+        user().sendMessage(C.GREEN + "Set " + C.BLUE + "rate limit burst " + C.GREEN + "to: " + C.BLUE + rateLimitBurst);
+    }
+
+    /**
+     * The maximal amount of rate limit tokens users can have.
+     */
+    private int rateLimitBurst = DEFAULT_RATE_LIMIT_BURST;
+
+    /**
+     * @return the maximal amount of rate limit tokens users can have
+     */
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
     /**
      * Setting command.
      * @param enable whether to enable it or not
@@ -254,6 +770,7 @@ public final class StrSettings implements StrCategory {
                     final Boolean enable
     ) {
         allowNullInput = enable == null ? !allowNullInput : enable;
+        changed();
         user().sendMessage(C.GREEN + "Set " + C.BLUE + "allow null input " + C.GREEN + "to: " + C.BLUE + allowNullInput);
     }
 
@@ -284,6 +801,7 @@ public final class StrSettings implements StrCategory {
                     final Boolean enable
     ) {
         debug = enable == null ? !debug : enable;
+        changed();
         user().sendMessage(C.GREEN + "Set " + C.BLUE + "debug " + C.GREEN + "to: " + C.BLUE + debug);
     }
 
@@ -314,6 +832,7 @@ public final class StrSettings implements StrCategory {
             final Boolean enable
     ) {
         warn = enable == null ? !warn : enable;
+        changed();
         user().sendMessage(C.GREEN + "Set " + C.BLUE + "warnings " + C.GREEN + "to: " + C.BLUE + warn);
     }
 
@@ -344,6 +863,7 @@ public final class StrSettings implements StrCategory {
             final Boolean enable
     ) {
         error = enable == null ? !error : enable;
+        changed();
         user().sendMessage(C.GREEN + "Set " + C.BLUE + "errors " + C.GREEN + "to: " + C.BLUE + error);
     }
 
@@ -374,6 +894,7 @@ public final class StrSettings implements StrCategory {
             final Boolean enable
     ) {
         info = enable == null ? !info : enable;
+        changed();
         user().sendMessage(C.GREEN + "Set " + C.BLUE + "information " + C.GREEN + "to: " + C.BLUE + info);
     }
 
@@ -405,6 +926,7 @@ public final class StrSettings implements StrCategory {
                     final Boolean enable
     ) {
         debugTime = enable == null ? !debugTime : enable;
+        changed();
         user().sendMessage(C.GREEN + "Set " + C.BLUE + "debugTime " + C.GREEN + "to: " + debugTime);
     }
 
@@ -436,6 +958,7 @@ public final class StrSettings implements StrCategory {
                     final Boolean enable
     ) {
         debugMatching = enable == null ? !debugMatching : enable;
+        changed();
         user().sendMessage(C.GREEN + "Set " + C.BLUE + "debug matching " + C.GREEN + "to: " + debugMatching);
     }
 
@@ -466,6 +989,7 @@ public final class StrSettings implements StrCategory {
                     final Boolean enable
     ) {
         pickFirstOnMultiple = enable == null ? !pickFirstOnMultiple : enable;
+        changed();
         user().sendMessage(C.GREEN + "Set " + C.BLUE + "pick first on multiple " + C.GREEN + "to: " + pickFirstOnMultiple);
     }
 
@@ -484,40 +1008,60 @@ public final class StrSettings implements StrCategory {
     }
 
     /**
-     * Load a new StrInput file from json.
+     * Load a new StrInput file from json.<br>
+     * Creates the file (and its folders) with default settings if it does not exist.
      *
      * @param settingsFile the file to read json from
      * @param center the center to send debug to
-     * @return the new {@link StrSettings}
+     * @return the new {@link StrSettings}, or the default settings if the file cannot be read
      */
-    public static StrSettings fromConfigJson(
+    public static @NotNull StrSettings fromConfigJson(
             @NotNull final File settingsFile,
             @NotNull final StrCenter center
     ) {
         try {
             if (!settingsFile.exists() || settingsFile.length() == 0) {
-                if (!settingsFile.getParentFile().mkdirs()) {
+                File parent = settingsFile.getParentFile();
+                if (!parent.isDirectory() && !parent.mkdirs()) {
                     throw new IOException("Failed to initialize parent directories for settings");
                 }
                 StrSettings newSettings = new StrSettings();
-                FileWriter f = new FileWriter(settingsFile);
-                GSON.toJson(newSettings, StrSettings.class, f);
-                f.close();
+                try (FileWriter f = new FileWriter(settingsFile)) {
+                    GSON.toJson(newSettings, StrSettings.class, f);
+                }
                 newSettings.lastChanged = settingsFile.lastModified();
                 center.debug(C.GREEN + "Made new StrInput config (" + C.BLUE + settingsFile.getParent().replace("\\", "/")
                                 + "/" + settingsFile.getName() + C.GREEN + ")");
                 return newSettings;
             }
-            return new Gson().fromJson(
-                    new FileReader(settingsFile),
-                    StrSettings.class
-            );
-        } catch (IOException e) {
+            try (FileReader f = new FileReader(settingsFile)) {
+                StrSettings settings = GSON.fromJson(f, StrSettings.class);
+                return settings == null ? new StrSettings() : settings;
+            }
+        } catch (IOException | JsonParseException e) {
             e.printStackTrace();
-            return null;
+            return new StrSettings();
         }
     }
 
+    /**
+     * Load settings from json.
+     * @param json the json
+     * @return the settings, or {@code null} if the json is empty
+     * @throws JsonParseException if the json is malformed
+     */
+    static @Nullable StrSettings fromJson(@NotNull final String json) {
+        return GSON.fromJson(json, StrSettings.class);
+    }
+
+    /**
+     * Convert these settings to json, as they are stored in the settings file.
+     * @return the json
+     */
+    @NotNull String toJson() {
+        return GSON.toJson(this, StrSettings.class);
+    }
+
     /**
      * Save the config to the specified file.
      *
@@ -548,7 +1092,10 @@ public final class StrSettings implements StrCategory {
      * @param center the center to send debug messages to
      *
      * @return the new settings
+     * @deprecated centers reload their settings in the background when the file changes,
+     * and save in-memory changes the same way. Reading the file on every call is expensive.
      */
+    @Deprecated(since = "v1.3")
     public StrSettings hotLoad(
             @NotNull final File settingsFile,
             @NotNull final StrCenter center
@@ -571,4 +1118,262 @@ public final class StrSettings implements StrCategory {
         }
         return this;
     }
+
+    /**
+     * Immutable snapshot of the {@link StrSettings} that affect running a command.<br>
+     * A snapshot is captured once per command and stored in the {@link Context},
+     * so every setting is a plain field read,
+     * and commands never see settings change while they run.
+     * The getters match those of {@link StrSettings}.
+     */
+    public static final class Snapshot {
+
+        /**
+         * The amount of times a user can re-try picking an option.
+         */
+        private final int pickingAmount;
+
+        /**
+         * The amount of seconds a user has to pick an option.
+         */
+        private final long pickingTimeout;
+
+        /**
+         * The threshold matching should achieve.
+         */
+        private final double matchThreshold;
+
+        /**
+         * Whether commands run async.
+         */
+        private final boolean async;
+
+        /**
+         * Whether commands of a user run in order.
+         */
+        private final boolean userOrdering;
+
+        /**
+         * Seconds after which commands are cancelled.
+         */
+        private final int commandTimeout;
+
+        /**
+         * Whether users are rate limited.
+         */
+        private final boolean rateLimiting;
+
+        /**
+         * Rate limit tokens refilled per second.
+         */
+        private final int rateLimitPerSecond;
+
+        /**
+         * Maximal amount of rate limit tokens.
+         */
+        private final int rateLimitBurst;
+
+        /**
+         * Whether null is allowed as input.
+         */
+        private final boolean allowNullInput;
+
+        /**
+         * Whether debug messages are sent.
+         */
+        private final boolean debug;
+
+        /**
+         * Whether warning messages are sent.
+         */
+        private final boolean warn;
+
+        /**
+         * Whether error messages are sent.
+         */
+        private final boolean error;
+
+        /**
+         * Whether info messages are sent.
+         */
+        private final boolean info;
+
+        /**
+         * Whether command timings are sent.
+         */
+        private final boolean debugTime;
+
+        /**
+         * Whether matching debug messages are sent.
+         */
+        private final boolean debugMatching;
+
+        /**
+         * Whether the first of multiple options is picked.
+         */
+        private final boolean pickFirstOnMultiple;
+
+        /**
+         * Debug message prefix.
+         */
+        private final String debugPrefix;
+
+        /**
+         * The {@link StrSettings#version} of the settings when the snapshot was taken.
+         */
+        private final long version;
+
+        /**
+         * Take a snapshot of settings.
+         * @param settings the settings
+         * @param settingsVersion the version of the settings, read before this snapshot is taken
+         */
+        private Snapshot(@NotNull final StrSettings settings, final long settingsVersion) {
+            this.version = settingsVersion;
+            this.pickingAmount = settings.getPickingAmount();
+            this.pickingTimeout = settings.getPickingTimeout();
+            this.matchThreshold = settings.getMatchThreshold();
+            this.async = settings.isAsync();
+            this.userOrdering = settings.isUserOrdering();
+            this.commandTimeout = settings.getCommandTimeout();
+            this.rateLimiting = settings.isRateLimiting();
+            this.rateLimitPerSecond = settings.getRateLimitPerSecond();
+            this.rateLimitBurst = settings.getRateLimitBurst();
+            this.allowNullInput = settings.isAllowNullInput();
+            this.debug = settings.isDebug();
+            this.warn = settings.isWarn();
+            this.error = settings.isError();
+            this.info = settings.isInfo();
+            this.debugTime = settings.isDebugTime();
+            this.debugMatching = settings.isDebugMatching();
+            this.pickFirstOnMultiple = settings.isPickFirstOnMultiple();
+            this.debugPrefix = settings.getDebugPrefix();
+        }
+
+        /**
+         * @return the amount of times a user can re-try picking an option
+         */
+        public int getPickingAmount() {
+            return pickingAmount;
+        }
+
+        /**
+         * @return the amount of seconds a user has to pick an option
+         */
+        public long getPickingTimeout() {
+            return pickingTimeout;
+        }
+
+        /**
+         * @return the threshold matching should achieve
+         */
+        public double getMatchThreshold() {
+            return matchThreshold;
+        }
+
+        /**
+         * @return whether commands run async
+         */
+        public boolean isAsync() {
+            return async;
+        }
+
+        /**
+         * @return whether commands of a user run in order
+         */
+        public boolean isUserOrdering() {
+            return userOrdering;
+        }
+
+        /**
+         * @return seconds after which commands are cancelled
+         */
+        public int getCommandTimeout() {
+            return commandTimeout;
+        }
+
+        /**
+         * @return whether users are rate limited
+         */
+        public boolean isRateLimiting() {
+            return rateLimiting;
+        }
+
+        /**
+         * @return rate limit tokens refilled per second
+         */
+        public int getRateLimitPerSecond() {
+            return rateLimitPerSecond;
+        }
+
+        /**
+         * @return maximal amount of rate limit tokens
+         */
+        public int getRateLimitBurst() {
+            return rateLimitBurst;
+        }
+
+        /**
+         * @return whether null is allowed as input
+         */
+        public boolean isAllowNullInput() {
+            return allowNullInput;
+        }
+
+        /**
+         * @return whether debug messages are sent
+         */
+        public boolean isDebug() {
+            return debug;
+        }
+
+        /**
+         * @return whether warning messages are sent
+         */
+        public boolean isWarn() {
+            return warn;
+        }
+
+        /**
+         * @return whether error messages are sent
+         */
+        public boolean isError() {
+            return error;
+        }
+
+        /**
+         * @return whether info messages are sent
+         */
+        public boolean isInfo() {
+            return info;
+        }
+
+        /**
+         * @return whether command timings are sent
+         */
+        public boolean isDebugTime() {
+            return debugTime;
+        }
+
+        /**
+         * @return whether matching debug messages are sent
+         */
+        public boolean isDebugMatching() {
+            return debugMatching;
+        }
+
+        /**
+         * @return whether the first of multiple options is picked
+         */
+        public boolean isPickFirstOnMultiple() {
+            return pickFirstOnMultiple;
+        }
+
+        /**
+         * @return the debug message prefix
+         */
+        public String getDebugPrefix() {
+            return debugPrefix;
+        }
+    }
 }
@@ -0,0 +1,318 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system;
+
+import com.google.gson.JsonParseException;
+import nl.codevs.strinput.system.util.C;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background watcher for the settings file of a {@link StrCenter}.<br>
+ * Reloads the settings only when the file actually changes,
+ * using a {@link WatchService}, or polling the modification time
+ * if the file system cannot be watched.
+ * The reloaded settings are handed to the center, so commands never touch the file system.<br>
+ * In-memory changes (by settings commands) only mark the settings dirty.
+ * They are written back to the file from this thread, once no changes were made for a short while,
+ * through a temporary file that replaces the settings file atomically.
+ * Writes that would not change the content of the file are skipped.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+final class StrSettingsWatcher implements Runnable {
+
+    /**
+     * Milliseconds between checks for in-memory changes (and file changes, when polling).
+     */
+    private static final long POLL_MILLIS = 250;
+
+    /**
+     * Milliseconds without in-memory changes before they are written to the file.
+     */
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    /**
+     * The settings file.
+     */
+    private final File settingsFile;
+
+    /**
+     * The center the settings belong to.
+     */
+    private final StrCenter center;
+
+    /**
+     * The watcher thread.
+     */
+    private final Thread thread;
+
+    /**
+     * The hash of the settings file as it was last read or written.
+     */
+    private byte[] lastHash;
+
+    /**
+     * The last seen modification time of the file, when polling.
+     */
+    private long lastModified;
+
+    /**
+     * Create a new settings watcher. Call {@link #start()} to start watching.
+     * @param file the settings file
+     * @param owner the center the settings belong to
+     */
+    StrSettingsWatcher(@NotNull final File file, @NotNull final StrCenter owner) {
+        this.settingsFile = file;
+        this.center = owner;
+        this.thread = new Thread(this, "StrInput settings watcher");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Start watching, from the settings the center currently has.
+     */
+    void start() {
+        lastHash = hash(center.getSettings().toJson());
+        lastModified = settingsFile.lastModified();
+        thread.start();
+    }
+
+    /**
+     * Stop watching. Pending in-memory changes are written to the file one last time.
+     */
+    void stop() {
+        thread.interrupt();
+    }
+
+    @Override
+    public void run() {
+        WatchService watchService = null;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            settingsFile.getParentFile().toPath().register(
+                    watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY
+            );
+        } catch (IOException | UnsupportedOperationException e) {
+            center.debug(C.YELLOW + "Cannot watch the settings file, polling it instead: " + e.getMessage());
+            closeQuietly(watchService);
+            watchService = null;
+        }
+
+        // Pick up changes made before the file was watched
+        reload();
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (watchService == null ? pollChanged() : watchChanged(watchService)) {
+                    reload();
+                }
+                persist(false);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // Stopped
+        } finally {
+            closeQuietly(watchService);
+            persist(true);
+        }
+    }
+
+    /**
+     * Wait for the settings file to change, using the watch service.
+     * @param watchService the watch service
+     * @return true if the settings file changed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private boolean watchChanged(@NotNull final WatchService watchService) throws InterruptedException {
+        WatchKey key = watchService.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (key == null) {
+            return false;
+        }
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || settingsFile.getName().equals(String.valueOf(event.context()))) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Wait, and check whether the modification time of the settings file changed.
+     * @return true if the settings file changed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private boolean pollChanged() throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(POLL_MILLIS);
+        long modified = settingsFile.lastModified();
+        if (modified == lastModified) {
+            return false;
+        }
+        lastModified = modified;
+        return true;
+    }
+
+    /**
+     * Reload the settings from the file, if its content changed.
+     * A file that cannot be read or parsed (for example while it is being written) is skipped.
+     * If the settings have unsaved in-memory changes, those win, and overwrite the file.
+     * The values are copied into the settings of the center, so changes made by settings commands
+     * after a reload are still seen here and by {@link #persist(boolean)}.
+     */
+    private void reload() {
+        String json = read();
+        if (json == null) {
+            return;
+        }
+        byte[] hash = hash(json);
+        if (Arrays.equals(hash, lastHash)) {
+            return;
+        }
+        if (center.getSettings().isDirty()) {
+            center.warn("The settings file changed while there are unsaved changes, keeping the current settings");
+            return;
+        }
+        try {
+            StrSettings settings = StrSettings.fromJson(json);
+            if (settings == null) {
+                return;
+            }
+            lastHash = hash;
+            center.getSettings().applyFrom(settings);
+            center.debug(C.GREEN + "Hot-loaded StrInput Settings");
+        } catch (JsonParseException e) {
+            center.warn("Could not parse the settings file, keeping the current settings: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write in-memory changes of the settings to the file,
+     * if there are any and no changes were made for {@link #DEBOUNCE_MILLIS}.
+     * @param now true to skip the debounce (when stopping)
+     */
+    private void persist(final boolean now) {
+        StrSettings settings = center.getSettings();
+        if (!settings.isDirty()) {
+            return;
+        }
+        if (!now && System.nanoTime() - settings.getChangedAt() < TimeUnit.MILLISECONDS.toNanos(DEBOUNCE_MILLIS)) {
+            return;
+        }
+
+        // Clean before serializing, so changes made while writing are picked up next time
+        settings.clean();
+        String json = settings.toJson();
+        byte[] hash = hash(json);
+        if (Arrays.equals(hash, lastHash)) {
+            return;
+        }
+        try {
+            write(json);
+            lastHash = hash;
+            lastModified = settingsFile.lastModified();
+            center.debug(C.GREEN + "Saved StrInput Settings");
+        } catch (IOException e) {
+            center.warn("Failed to save the settings file: " + e.getMessage());
+
+            // Try again on the next poll
+            settings.markDirty();
+        }
+    }
+
+    /**
+     * Write the settings file through a temporary file,
+     * so readers never see a partially written file.
+     * @param json the content to write
+     * @throws IOException if the file cannot be written
+     */
+    private void write(@NotNull final String json) throws IOException {
+        Path path = settingsFile.toPath();
+        Path temp = path.resolveSibling(settingsFile.getName() + ".tmp");
+        Files.writeString(temp, json, StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Hash settings json.
+     * @param json the json
+     * @return the SHA-256 hash of the json
+     */
+    private static byte[] hash(@NotNull final String json) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Read the settings file.
+     * @return the content of the file, or {@code null} if it cannot be read
+     */
+    private @Nullable String read() {
+        Path path = settingsFile.toPath();
+        try {
+            return Files.readString(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Close a watch service, ignoring errors.
+     * @param watchService the watch service, may be {@code null}
+     */
+    private static void closeQuietly(@Nullable final WatchService watchService) {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.context;
+
+import nl.codevs.strinput.system.StrUser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of context values, keyed by user and type.<br>
+ * Values are cached as long as their {@link StrContextHandler#lifetime()} allows:
+ * <ul>
+ *     <li>{@link StrContextHandler.Lifetime#NONE} values are never cached</li>
+ *     <li>{@link StrContextHandler.Lifetime#DISPATCH} values are cached per user on the thread
+ *     dispatching a command, between {@link #open()} and {@link #close()}</li>
+ *     <li>{@link StrContextHandler.Lifetime#TTL} values are cached per user,
+ *     until their {@link StrContextHandler#ttl()} passed</li>
+ * </ul>
+ * {@code null} values are never cached.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class StrContextCache {
+
+    /**
+     * The amount of timed values above which expired values are removed.
+     */
+    private static final int SWEEP_THRESHOLD = 1024;
+
+    /**
+     * Values of the command being dispatched on each thread, by user and type.
+     * {@code null} outside a dispatch.
+     */
+    private final ThreadLocal<Map<Key, Object>> dispatch = new ThreadLocal<>();
+
+    /**
+     * Timed values by user and type.
+     */
+    private final ConcurrentHashMap<Key, Timed> timed = new ConcurrentHashMap<>();
+
+    /**
+     * Start caching values for a command dispatched on the current thread.<br>
+     * If a command is already being dispatched on this thread (a command running another command),
+     * its values are shared with commands of the same user, and this returns false.
+     * @return true if caching started, in which case {@link #close()} must be called
+     */
+    public boolean open() {
+        if (dispatch.get() != null) {
+            return false;
+        }
+        dispatch.set(new HashMap<>());
+        return true;
+    }
+
+    /**
+     * Stop caching values for the command dispatched on the current thread,
+     * and drop the values cached for it.
+     */
+    public void close() {
+        dispatch.remove();
+    }
+
+    /**
+     * Get a context value, from the cache if its lifetime allows.
+     * @param handler the handler computing the value
+     * @param type the type of the value
+     * @param user the user to get the value for
+     * @return the value, or {@code null} if the handler returned {@code null}
+     */
+    public @Nullable Object get(
+            @NotNull final StrContextHandler<?> handler,
+            @NotNull final Class<?> type,
+            @NotNull final StrUser user
+    ) {
+        switch (handler.lifetime()) {
+            case DISPATCH: {
+                Map<Key, Object> values = dispatch.get();
+                if (values == null) {
+                    return handler.handle(user);
+                }
+                Key key = new Key(user.getName(), type);
+                Object value = values.get(key);
+                if (value == null) {
+                    value = handler.handle(user);
+                    if (value != null) {
+                        values.put(key, value);
+                    }
+                }
+                return value;
+            }
+            case TTL: {
+                long now = System.nanoTime();
+                Key key = new Key(user.getName(), type);
+                Timed entry = timed.get(key);
+                if (entry != null && now - entry.expiresAt < 0) {
+                    return entry.value;
+                }
+                Object value = handler.handle(user);
+                if (value != null) {
+                    if (timed.size() > SWEEP_THRESHOLD) {
+                        sweep(now);
+                    }
+                    timed.put(key, new Timed(value, now + handler.ttl().toNanos()));
+                }
+                return value;
+            }
+            default:
+                return handler.handle(user);
+        }
+    }
+
+    /**
+     * Drop the timed values of a user, for example when the user leaves.
+     * @param user the user
+     */
+    public void invalidate(@NotNull final StrUser user) {
+        String name = user.getName();
+        timed.keySet().removeIf(k -> k.user.equals(name));
+    }
+
+    /**
+     * Drop all timed values.
+     */
+    public void invalidateAll() {
+        timed.clear();
+    }
+
+    /**
+     * Get the amount of timed values, including expired values that were not removed yet.
+     * @return the amount of timed values
+     */
+    public int getTimedSize() {
+        return timed.size();
+    }
+
+    /**
+     * Remove expired timed values.
+     * @param now the current time ({@link System#nanoTime()})
+     */
+    private void sweep(final long now) {
+        timed.values().removeIf(t -> now - t.expiresAt >= 0);
+    }
+
+    /**
+     * Key of a cached value.
+     * @param user the name of the user
+     * @param type the type of the value
+     */
+    private record Key(String user, Class<?> type) { }
+
+    /**
+     * A timed value.
+     * @param value the value
+     * @param expiresAt when the value expires ({@link System#nanoTime()})
+     */
+    private record Timed(Object value, long expiresAt) { }
+}
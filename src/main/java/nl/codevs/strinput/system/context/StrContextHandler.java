@@ -21,6 +21,8 @@ import nl.codevs.strinput.system.StrUser;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
+
 /**
  * StrUserContext handler.<br>
  * These handlers make use of a provided {@link StrUser} to deduct a value.
@@ -53,6 +55,27 @@ public interface StrContextHandler<T> {
      */
     @Nullable T handle(@NotNull StrUser user);
 
+    /**
+     * How long values of this handler may be reused for the same user
+     * (see {@link StrContextCache}).<br>
+     * Defaults to {@link Lifetime#DISPATCH}: the value is computed once per command,
+     * and shared by all its parameters.
+     *
+     * @return the lifetime of values of this handler
+     */
+    @NotNull default Lifetime lifetime() {
+        return Lifetime.DISPATCH;
+    }
+
+    /**
+     * How long values of this handler may be reused, if the {@link #lifetime()} is {@link Lifetime#TTL}.
+     *
+     * @return the time to live of values of this handler
+     */
+    @NotNull default Duration ttl() {
+        return Duration.ZERO;
+    }
+
     /**
      * Convert this context to a string.
      *
@@ -64,4 +87,23 @@ public interface StrContextHandler<T> {
     @NotNull default String toString(@NotNull final T string) {
         return string.toString();
     }
+
+    /**
+     * How long context values may be reused.
+     */
+    enum Lifetime {
+        /**
+         * Never reused, computed for every parameter.
+         */
+        NONE,
+        /**
+         * Reused within one command.
+         */
+        DISPATCH,
+        /**
+         * Reused for the same user until the {@link #ttl()} passed.
+         * Use this for values that are expensive to compute, but stable.
+         */
+        TTL
+    }
 }
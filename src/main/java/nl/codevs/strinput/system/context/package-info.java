@@ -4,6 +4,9 @@
  *
  * All extra context handlers must implement this interface.
  *
+ * Context values are cached by {@link nl.codevs.strinput.system.context.StrContextCache},
+ * as long as the {@link nl.codevs.strinput.system.context.StrContextHandler#lifetime()} of their handler allows.
+ *
  * @author Sjoerd van de Goor
  */
 package nl.codevs.strinput.system.context;
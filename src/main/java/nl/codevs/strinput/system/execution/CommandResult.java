@@ -0,0 +1,374 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.execution;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The outcome of a single command.<br>
+ * Holds the resolved command path, the bound arguments,
+ * whether the command succeeded (and why not) and the time spent in each {@link Phase}.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class CommandResult {
+
+    /**
+     * The command as it was sent.
+     */
+    private final List<String> command;
+
+    /**
+     * The path of the resolved virtual, or {@code null} if none was resolved.
+     */
+    private final String path;
+
+    /**
+     * The bound arguments by parameter name, in parameter order.
+     */
+    private final Map<String, Object> arguments;
+
+    /**
+     * Whether the command succeeded.
+     */
+    private final boolean success;
+
+    /**
+     * Why the command failed, or {@code null} if it succeeded.
+     */
+    private final String reason;
+
+    /**
+     * Nanoseconds spent in each phase, indexed by {@link Phase#ordinal()}.
+     */
+    private final long[] nanos;
+
+    /**
+     * Create a new command result.
+     * @param sentCommand the command as it was sent
+     * @param resolvedPath the path of the resolved virtual
+     * @param boundArguments the bound arguments by parameter name
+     * @param succeeded whether the command succeeded
+     * @param failReason why the command failed
+     * @param phaseNanos nanoseconds spent in each phase
+     */
+    private CommandResult(
+            @NotNull final List<String> sentCommand,
+            @Nullable final String resolvedPath,
+            @NotNull final Map<String, Object> boundArguments,
+            final boolean succeeded,
+            @Nullable final String failReason,
+            final long @NotNull [] phaseNanos
+    ) {
+        this.command = sentCommand;
+        this.path = resolvedPath;
+        this.arguments = boundArguments;
+        this.success = succeeded;
+        this.reason = failReason;
+        this.nanos = phaseNanos;
+    }
+
+    /**
+     * Get the command as it was sent.
+     * @return the command
+     */
+    public @NotNull List<String> getCommand() {
+        return command;
+    }
+
+    /**
+     * Get the path of the virtual the command resolved to.
+     * @return the path, or {@code null} if the command did not resolve
+     */
+    public @Nullable String getPath() {
+        return path;
+    }
+
+    /**
+     * Get the arguments bound to the parameters of the command.<br>
+     * Parameters that were explicitly set to {@code null} map to {@code null}.
+     * @return unmodifiable map from parameter name to value, in parameter order
+     */
+    public @NotNull Map<String, Object> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Get whether the command succeeded.
+     * @return true if the command ran without problems
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * Get the reason the command failed.
+     * @return the reason, or {@code null} if the command succeeded
+     */
+    public @Nullable String getReason() {
+        return reason;
+    }
+
+    /**
+     * Get the time spent in a phase.
+     * @param phase the phase
+     * @return nanoseconds spent in the phase, {@code 0} if it was not reached
+     */
+    public long getNanos(@NotNull final Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * Get the total time from submitting the command until it finished.
+     * @return nanoseconds spent in all phases
+     */
+    public long getTotalNanos() {
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "CommandResult{"
+                + "command=" + String.join(" ", command)
+                + ", path=" + path
+                + ", arguments=" + arguments
+                + ", " + (success ? "success" : "failed: " + reason)
+                + ", totalNanos=" + getTotalNanos()
+                + "}";
+    }
+
+    /**
+     * Phases of running a command, in order.
+     */
+    public enum Phase {
+        /**
+         * Waiting in the queue of the executor.
+         */
+        QUEUE,
+        /**
+         * Setting up the context.
+         */
+        SETUP,
+        /**
+         * Walking the command tree to find the command.
+         */
+        RESOLVE,
+        /**
+         * Parsing and binding the arguments to the parameters.
+         */
+        PARSE,
+        /**
+         * Running the command, including waiting for the sync thread if it is sync.
+         */
+        EXECUTE
+    }
+
+    /**
+     * Records the result of a command while it runs.<br>
+     * The first call to {@link #succeed()} or {@link #fail(String)} completes the {@link #getFuture() future},
+     * later calls are ignored.
+     */
+    public static final class Recorder {
+
+        /**
+         * The command as it was sent.
+         */
+        private final List<String> command;
+
+        /**
+         * The future to complete.
+         */
+        private final CompletableFuture<CommandResult> future = new CompletableFuture<>();
+
+        /**
+         * Start time of each phase (indexed by {@link Phase#ordinal()}),
+         * followed by the end time. {@code 0} if not reached.
+         */
+        private final long[] marks = new long[Phase.values().length + 1];
+
+        /**
+         * The path of the resolved virtual.
+         */
+        private String path;
+
+        /**
+         * The bound arguments.
+         */
+        private Map<String, Object> arguments = Collections.emptyMap();
+
+        /**
+         * Whether the command is completed later, by the sync thread.
+         */
+        private boolean deferred;
+
+        /**
+         * The amount of rate limit tokens charged for the command so far.
+         */
+        private int charged;
+
+        /**
+         * Create a new recorder. Starts the {@link Phase#QUEUE} phase.
+         * @param sentCommand the command as it was sent
+         */
+        public Recorder(@NotNull final List<String> sentCommand) {
+            this.command = List.copyOf(sentCommand);
+            mark(Phase.QUEUE);
+        }
+
+        /**
+         * Get the future that completes with the result.
+         * @return the future
+         */
+        public @NotNull CompletableFuture<CommandResult> getFuture() {
+            return future;
+        }
+
+        /**
+         * Start the {@link Phase#SETUP} phase.
+         */
+        public void start() {
+            mark(Phase.SETUP);
+        }
+
+        /**
+         * Start the {@link Phase#RESOLVE} phase.
+         */
+        public void dispatch() {
+            mark(Phase.RESOLVE);
+        }
+
+        /**
+         * Set the resolved virtual and start the {@link Phase#PARSE} phase.
+         * @param virtualPath the path of the virtual
+         */
+        public void resolve(@NotNull final String virtualPath) {
+            this.path = virtualPath;
+            mark(Phase.PARSE);
+        }
+
+        /**
+         * Set the bound arguments and start the {@link Phase#EXECUTE} phase.
+         * @param boundArguments the bound arguments by parameter name, in parameter order
+         */
+        public void bind(@NotNull final Map<String, Object> boundArguments) {
+            this.arguments = Collections.unmodifiableMap(new LinkedHashMap<>(boundArguments));
+            mark(Phase.EXECUTE);
+        }
+
+        /**
+         * Mark the command to be completed later, by the sync thread.
+         */
+        public void defer() {
+            deferred = true;
+        }
+
+        /**
+         * Get whether the command is completed later, by the sync thread.
+         * @return true if the command is deferred
+         */
+        public boolean isDeferred() {
+            return deferred;
+        }
+
+        /**
+         * Add to the amount of rate limit tokens charged for the command.
+         * @param tokens the amount of tokens charged
+         */
+        public void charge(final int tokens) {
+            charged += tokens;
+        }
+
+        /**
+         * Get the amount of rate limit tokens charged for the command so far.
+         * @return the amount of tokens
+         */
+        public int getCharged() {
+            return charged;
+        }
+
+        /**
+         * Get whether the command was completed with a failure.
+         * @return true if the command failed
+         */
+        public boolean isFailed() {
+            return future.isDone() && !future.join().isSuccess();
+        }
+
+        /**
+         * Complete the command successfully.
+         */
+        public void succeed() {
+            finish(true, null);
+        }
+
+        /**
+         * Complete the command with a failure.
+         * @param reason why the command failed
+         */
+        public void fail(@NotNull final String reason) {
+            finish(false, reason);
+        }
+
+        /**
+         * Start a phase.
+         * @param phase the phase
+         */
+        private void mark(@NotNull final Phase phase) {
+            marks[phase.ordinal()] = System.nanoTime();
+        }
+
+        /**
+         * Complete the future, if not yet completed.
+         * @param success whether the command succeeded
+         * @param reason why the command failed
+         */
+        private synchronized void finish(final boolean success, @Nullable final String reason) {
+            if (future.isDone()) {
+                return;
+            }
+            marks[marks.length - 1] = System.nanoTime();
+
+            // A phase ends when the next reached phase starts
+            long[] nanos = new long[Phase.values().length];
+            for (int i = 0; i < nanos.length; i++) {
+                if (marks[i] == 0) {
+                    continue;
+                }
+                int next = i + 1;
+                while (marks[next] == 0) {
+                    next++;
+                }
+                nanos[i] = marks[next] - marks[i];
+            }
+
+            future.complete(new CommandResult(command, path, arguments, success, reason, nanos));
+        }
+    }
+}
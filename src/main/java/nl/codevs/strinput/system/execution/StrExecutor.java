@@ -0,0 +1,485 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.execution;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded executor for asynchronous commands.<br>
+ * Commands are queued on a pool of reused threads,
+ * instead of starting a new thread for each command.<br>
+ * The pool is fixed if the core and maximum size are equal,
+ * else it grows up to the maximum size when the queue is full
+ * and shrinks back after {@link #KEEP_ALIVE_SECONDS}.<br>
+ * Queued commands run by priority, and in order within a priority.
+ * When the queue is full and the pool is at its maximum size, a command with a higher priority
+ * takes the place of the newest command with the lowest priority, which is rejected.
+ * A queued {@link StrUserLanes user lane} only gives up its place if it holds a single command,
+ * so a lane is never rejected as a whole for a command with a higher priority.<br>
+ * Alternatively, each command runs on its own virtual thread
+ * (see {@link #supportsVirtualThreads()}), which suits commands
+ * that mostly block on I/O. There is no queue (and no priority) in that mode.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class StrExecutor {
+
+    /**
+     * Seconds an idle thread above the core pool size is kept alive.
+     */
+    public static final long KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * Factory for a virtual thread per task executor,
+     * or {@code null} if the runtime does not have virtual threads.
+     */
+    private static final MethodHandle VIRTUAL_EXECUTOR_FACTORY = findVirtualExecutorFactory();
+
+    /**
+     * Order of queued tasks: highest priority first, then first submitted first.
+     */
+    private static final Comparator<Runnable> TASK_ORDER = (a, b) -> {
+        int c = Integer.compare(((Task) b).priority, ((Task) a).priority);
+        return c != 0 ? c : Long.compare(((Task) a).sequence, ((Task) b).sequence);
+    };
+
+    /**
+     * The underlying pool, or {@code null} when running on virtual threads.
+     */
+    private final ThreadPoolExecutor pool;
+
+    /**
+     * The underlying executor service.
+     */
+    private final ExecutorService service;
+
+    /**
+     * Amount of commands running.
+     */
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * Sequence number of the next task, to keep tasks of the same priority in order.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Create a new executor on a pool of platform threads.
+     * @param name the name prefix of the threads in the pool
+     * @param poolSize the amount of threads kept alive
+     * @param maxPoolSize the maximal amount of threads
+     *                    (equal to {@code poolSize} for a fixed pool)
+     * @param queueDepth the amount of commands that can be queued
+     * @param policy what to do with commands when the queue is full
+     */
+    public StrExecutor(
+            @NotNull final String name,
+            final int poolSize,
+            final int maxPoolSize,
+            final int queueDepth,
+            @NotNull final RejectionPolicy policy
+    ) {
+        this(name, poolSize, maxPoolSize, queueDepth, policy, false);
+    }
+
+    /**
+     * Create a new executor.
+     * @param name the name prefix of the threads in the pool
+     * @param poolSize the amount of threads kept alive
+     * @param maxPoolSize the maximal amount of threads
+     *                    (equal to {@code poolSize} for a fixed pool)
+     * @param queueDepth the amount of commands that can be queued
+     * @param policy what to do with commands when the queue is full
+     * @param virtual whether to run each command on a virtual thread.
+     *                Falls back to the platform pool if
+     *                {@link #supportsVirtualThreads()} is {@code false}
+     */
+    public StrExecutor(
+            @NotNull final String name,
+            final int poolSize,
+            final int maxPoolSize,
+            final int queueDepth,
+            @NotNull final RejectionPolicy policy,
+            final boolean virtual
+    ) {
+        ExecutorService virtualService = virtual ? newVirtualExecutor() : null;
+        if (virtualService != null) {
+            pool = null;
+            service = virtualService;
+            return;
+        }
+        int core = Math.max(1, poolSize);
+        pool = new ThreadPoolExecutor(
+                core,
+                Math.max(core, maxPoolSize),
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new TaskQueue(Math.max(1, queueDepth)),
+                new NamedThreadFactory(name),
+                (r, p) -> {
+                    // Make room for a higher priority task before applying the policy
+                    Runnable evicted = p.isShutdown() ? null : ((TaskQueue) p.getQueue()).evict((Task) r, false);
+                    if (evicted == null) {
+                        policy.handler.rejectedExecution(r, p);
+                        return;
+                    }
+                    evicted.run();
+                    p.execute(r);
+                }
+        );
+        service = pool;
+    }
+
+    /**
+     * Get whether the runtime supports virtual threads (Java 21+).
+     * @return true if virtual threads are supported
+     */
+    public static boolean supportsVirtualThreads() {
+        return VIRTUAL_EXECUTOR_FACTORY != null;
+    }
+
+    /**
+     * Get whether this executor runs commands on virtual threads.
+     * @return true if commands run on virtual threads
+     */
+    public boolean isVirtual() {
+        return pool == null;
+    }
+
+    /**
+     * Execute a task on the pool, with the default priority ({@code 0}).
+     * @param task the task to run
+     * @param onReject ran (on the submitting thread) if the task
+     *                 is rejected or discarded by the {@link RejectionPolicy}
+     */
+    public void execute(
+            @NotNull final Runnable task,
+            @NotNull final Runnable onReject
+    ) {
+        execute(task, onReject, 0);
+    }
+
+    /**
+     * Execute a task on the pool.
+     * @param task the task to run
+     * @param onReject ran (on the submitting thread) if the task
+     *                 is rejected or discarded by the {@link RejectionPolicy},
+     *                 or pushed out of the queue by a task with a higher priority
+     * @param priority the priority of the task, higher runs first
+     */
+    public void execute(
+            @NotNull final Runnable task,
+            @NotNull final Runnable onReject,
+            final int priority
+    ) {
+        try {
+            service.execute(new Task(task, onReject, running, priority, sequence.getAndIncrement()));
+        } catch (RejectedExecutionException e) {
+            onReject.run();
+        }
+    }
+
+    /**
+     * Stop accepting new tasks. Queued and running tasks still run.
+     * New tasks are rejected (their {@code onReject} runs).
+     */
+    public void shutdown() {
+        service.shutdown();
+    }
+
+    /**
+     * Get whether this executor was shut down.
+     * @return true if shut down
+     */
+    public boolean isShutdown() {
+        return service.isShutdown();
+    }
+
+    /**
+     * Wait for queued and running tasks to finish after a {@link #shutdown()}.
+     * @param timeout the maximal time to wait
+     * @return true if all tasks finished, false if the timeout passed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(@NotNull final Duration timeout) throws InterruptedException {
+        return service.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the amount of commands waiting in the queue.
+     * @return the queue depth ({@code 0} on virtual threads)
+     */
+    public int getQueued() {
+        return pool == null ? 0 : pool.getQueue().size();
+    }
+
+    /**
+     * Get the amount of commands running.
+     * @return the amount of running commands
+     */
+    public int getActive() {
+        return running.get();
+    }
+
+    /**
+     * Find the virtual thread executor factory.
+     * @return the factory, or {@code null} if not available
+     */
+    private static @Nullable MethodHandle findVirtualExecutorFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(
+                    Executors.class,
+                    "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class)
+            );
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Create a virtual thread per task executor.
+     * @return the executor, or {@code null} if virtual threads are unavailable
+     * (also when they are a disabled preview feature)
+     */
+    private static @Nullable ExecutorService newVirtualExecutor() {
+        if (VIRTUAL_EXECUTOR_FACTORY == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) VIRTUAL_EXECUTOR_FACTORY.invoke();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * What to do with a command when the pool and queue are full.
+     */
+    public enum RejectionPolicy {
+        /**
+         * Reject the new command.
+         */
+        REJECT((r, p) -> ((Task) r).reject()),
+        /**
+         * Run the new command on the thread submitting it.
+         */
+        CALLER_RUNS((r, p) -> {
+            if (p.isShutdown()) {
+                ((Task) r).reject();
+            } else {
+                r.run();
+            }
+        }),
+        /**
+         * Discard the oldest queued command and queue the new one.<br>
+         * Only commands with a priority at most that of the new command are discarded,
+         * the oldest of those with the lowest priority first.
+         * If there are none, the new command is rejected.
+         */
+        DISCARD_OLDEST((r, p) -> {
+            Runnable evicted = p.isShutdown() ? null : ((TaskQueue) p.getQueue()).evict((Task) r, true);
+            if (evicted == null) {
+                ((Task) r).reject();
+                return;
+            }
+            evicted.run();
+            p.execute(r);
+        });
+
+        /**
+         * The handler on the pool.
+         */
+        private final RejectedExecutionHandler handler;
+
+        RejectionPolicy(final RejectedExecutionHandler rejectedHandler) {
+            this.handler = rejectedHandler;
+        }
+    }
+
+    /**
+     * A task with a callback for when it is rejected.
+     * @param task the task
+     * @param onReject the rejection callback
+     * @param running counter of running tasks
+     * @param priority the priority of the task
+     * @param sequence the sequence number of the task
+     */
+    private record Task(
+            Runnable task,
+            Runnable onReject,
+            AtomicInteger running,
+            int priority,
+            long sequence
+    ) implements Runnable {
+
+        @Override
+        public void run() {
+            running.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+        /**
+         * Reject this task.
+         */
+        void reject() {
+            onReject.run();
+        }
+    }
+
+    /**
+     * A task that holds multiple commands, like a {@link StrUserLanes user lane}.<br>
+     * It is only evicted from the queue if it holds a single command,
+     * so no more than one command is rejected to make room.
+     */
+    interface Evictable {
+
+        /**
+         * Remove the only command of this task, if it has exactly one that did not start yet.
+         * The task then does nothing when it runs.
+         * @return the rejection callback of the removed command,
+         * or {@code null} if this task can not be evicted
+         */
+        @Nullable Runnable evict();
+    }
+
+    /**
+     * Bounded priority queue of {@link Task}s.<br>
+     * When full, offers fail, so the pool grows up to its maximum size first.
+     * After that, the rejection handler may {@link #evict(Task, boolean) evict} a queued task.
+     */
+    private static final class TaskQueue extends PriorityBlockingQueue<Runnable> {
+
+        /**
+         * Serial version, as the queue is {@link java.io.Serializable}.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The maximal amount of queued tasks.
+         */
+        private final int capacity;
+
+        /**
+         * Create a new task queue.
+         * @param maxSize the maximal amount of queued tasks
+         */
+        TaskQueue(final int maxSize) {
+            super(maxSize, TASK_ORDER);
+            this.capacity = maxSize;
+        }
+
+        @Override
+        public synchronized boolean offer(@NotNull final Runnable r) {
+            return size() < capacity && super.offer(r);
+        }
+
+        /**
+         * Remove the queued task with the lowest priority
+         * (the newest of those, or the oldest if {@code oldest}),
+         * if its priority is lower than (or equal to, if {@code oldest}) that of a new task.<br>
+         * {@link Evictable} tasks holding more than one command are passed over.
+         * @param task the new task
+         * @param oldest whether to remove the oldest instead of the newest
+         *               and to also remove tasks of equal priority
+         * @return the rejection callback of the removed task (not ran yet),
+         * or {@code null} if none was removed
+         */
+        synchronized @Nullable Runnable evict(@NotNull final Task task, final boolean oldest) {
+            List<Task> candidates = new ArrayList<>(size());
+            for (Runnable r : this) {
+                Task t = (Task) r;
+                if (t.priority < task.priority || t.priority == task.priority && oldest) {
+                    candidates.add(t);
+                }
+            }
+
+            // Lowest priority first, then newest (or oldest) first
+            candidates.sort((a, b) -> a.priority != b.priority
+                    ? Integer.compare(a.priority, b.priority)
+                    : oldest ? Long.compare(a.sequence, b.sequence) : Long.compare(b.sequence, a.sequence));
+            for (Task candidate : candidates) {
+                if (candidate.task instanceof Evictable evictable) {
+                    Runnable rejection = evictable.evict();
+                    if (rejection != null) {
+                        remove(candidate);
+                        return rejection;
+                    }
+                } else if (remove(candidate)) {
+                    return candidate::reject;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Thread factory with numbered daemon threads.
+     */
+    static final class NamedThreadFactory implements ThreadFactory {
+
+        /**
+         * Thread name prefix.
+         */
+        private final String name;
+
+        /**
+         * Thread counter.
+         */
+        private final AtomicInteger count = new AtomicInteger();
+
+        /**
+         * Create a new thread factory.
+         * @param prefix thread name prefix
+         */
+        NamedThreadFactory(@NotNull final String prefix) {
+            this.name = prefix;
+        }
+
+        @Override
+        public Thread newThread(@NotNull final Runnable r) {
+            Thread thread = new Thread(r, name + " #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
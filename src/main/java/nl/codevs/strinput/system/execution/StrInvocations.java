@@ -0,0 +1,321 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.execution;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Command invocations that are running, by user.<br>
+ * An invocation can be cancelled by its user, or by a watchdog when its deadline passes.
+ * Cancelling interrupts the thread running the invocation.
+ * Commands stop if they block on something interruptible,
+ * or if they check {@link Thread#isInterrupted()} themselves.<br>
+ * Commands waiting for user input do so through {@link #await(CompletableFuture, long, TimeUnit)},
+ * so the waits can be cancelled when the system {@link #shutdown() shuts down}.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class StrInvocations {
+
+    /**
+     * Invocation state: running.
+     */
+    private static final int RUNNING = 0;
+
+    /**
+     * Invocation state: being cancelled, the thread is about to be interrupted.
+     */
+    private static final int CANCELLING = 1;
+
+    /**
+     * Invocation state: cancelled, the thread was interrupted.
+     */
+    private static final int CANCELLED = 2;
+
+    /**
+     * Invocation state: finished without being cancelled.
+     */
+    private static final int FINISHED = 3;
+
+    /**
+     * Running invocations by user.
+     */
+    private final ConcurrentHashMap<String, Set<Invocation>> running = new ConcurrentHashMap<>();
+
+    /**
+     * Watchdog cancelling invocations when their deadline passes.
+     */
+    private final ScheduledThreadPoolExecutor watchdog;
+
+    /**
+     * Futures that are being waited for.
+     */
+    private final Set<CompletableFuture<?>> waiting = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Whether waits are cancelled.
+     */
+    private volatile boolean shutdown;
+
+    /**
+     * Create a new invocation registry.
+     * @param name the name of the watchdog thread
+     */
+    public StrInvocations(@NotNull final String name) {
+        watchdog = new ScheduledThreadPoolExecutor(1, new StrExecutor.NamedThreadFactory(name));
+        watchdog.setRemoveOnCancelPolicy(true);
+        watchdog.setKeepAliveTime(StrExecutor.KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        watchdog.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Start an invocation on the current thread.
+     * Must be {@link Invocation#finish() finished} on the same thread.
+     * @param user the name of the user running the invocation
+     * @param path the path of the command
+     * @param timeoutSeconds seconds after which the invocation is cancelled,
+     *                       {@code 0} or less for no timeout
+     * @return the invocation
+     */
+    public @NotNull Invocation start(
+            @NotNull final String user,
+            @NotNull final String path,
+            final int timeoutSeconds
+    ) {
+        Invocation invocation = new Invocation(user, path, Thread.currentThread());
+        running.compute(user, (u, invocations) -> {
+            Set<Invocation> result = invocations == null ? ConcurrentHashMap.newKeySet() : invocations;
+            result.add(invocation);
+            return result;
+        });
+        if (timeoutSeconds > 0) {
+            invocation.deadline = watchdog.schedule(
+                    () -> invocation.cancel("timed out after " + timeoutSeconds + "s"),
+                    timeoutSeconds,
+                    TimeUnit.SECONDS
+            );
+        }
+        return invocation;
+    }
+
+    /**
+     * Cancel all running invocations of a user.
+     * @param user the name of the user
+     * @return the amount of cancelled invocations
+     */
+    public int cancel(@NotNull final String user) {
+        Set<Invocation> invocations = running.get(user);
+        if (invocations == null) {
+            return 0;
+        }
+        int cancelled = 0;
+        for (Invocation invocation : invocations) {
+            if (invocation.cancel("cancelled")) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * Wait for a future, for example one completed by user input.<br>
+     * The wait is cancelled if this registry is {@link #shutdown() shut down}.
+     * @param future the future to wait for
+     * @param timeout the maximal time to wait
+     * @param unit the unit of the timeout
+     * @param <T> the type of the result
+     * @return the result of the future
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException if the future completed exceptionally
+     * @throws TimeoutException if the timeout passed first
+     * @throws CancellationException if the wait was cancelled
+     */
+    public <T> T await(
+            @NotNull final CompletableFuture<T> future,
+            final long timeout,
+            @NotNull final TimeUnit unit
+    ) throws InterruptedException, ExecutionException, TimeoutException {
+        waiting.add(future);
+        try {
+            if (shutdown) {
+                future.cancel(false);
+            }
+            return future.get(timeout, unit);
+        } finally {
+            waiting.remove(future);
+        }
+    }
+
+    /**
+     * Cancel all waits, now and later. Running invocations are not cancelled.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (CompletableFuture<?> future : waiting) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Get the amount of waits for user input.
+     * @return the amount of waits
+     */
+    public int getWaiting() {
+        return waiting.size();
+    }
+
+    /**
+     * Get the amount of running invocations.
+     * @return the amount of running invocations
+     */
+    public int getRunning() {
+        int total = 0;
+        for (Set<Invocation> invocations : running.values()) {
+            total += invocations.size();
+        }
+        return total;
+    }
+
+    /**
+     * A running command invocation.
+     */
+    public final class Invocation {
+
+        /**
+         * The name of the user.
+         */
+        private final String user;
+
+        /**
+         * The path of the command.
+         */
+        private final String path;
+
+        /**
+         * The thread running the invocation.
+         */
+        private final Thread thread;
+
+        /**
+         * The state of the invocation.
+         */
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+        /**
+         * Why the invocation was cancelled.
+         */
+        private volatile String reason;
+
+        /**
+         * The scheduled timeout, if any.
+         */
+        private volatile ScheduledFuture<?> deadline;
+
+        /**
+         * Create a new invocation.
+         * @param userName the name of the user
+         * @param commandPath the path of the command
+         * @param invocationThread the thread running the invocation
+         */
+        private Invocation(
+                @NotNull final String userName,
+                @NotNull final String commandPath,
+                @NotNull final Thread invocationThread
+        ) {
+            this.user = userName;
+            this.path = commandPath;
+            this.thread = invocationThread;
+        }
+
+        /**
+         * Get the path of the command.
+         * @return the path
+         */
+        public @NotNull String getPath() {
+            return path;
+        }
+
+        /**
+         * Get whether this invocation was cancelled.
+         * @return true if cancelled
+         */
+        public boolean isCancelled() {
+            int s = state.get();
+            return s == CANCELLING || s == CANCELLED;
+        }
+
+        /**
+         * Get why this invocation was cancelled.
+         * @return the reason (for example "cancelled" or "timed out after 5s"),
+         * or {@code null} if not cancelled
+         */
+        public @Nullable String getReason() {
+            return reason;
+        }
+
+        /**
+         * Cancel this invocation by interrupting its thread.
+         * @param why why the invocation is cancelled
+         * @return true if cancelled, false if it already finished or was cancelled
+         */
+        private boolean cancel(@NotNull final String why) {
+            if (!state.compareAndSet(RUNNING, CANCELLING)) {
+                return false;
+            }
+            reason = why;
+            thread.interrupt();
+            state.set(CANCELLED);
+            return true;
+        }
+
+        /**
+         * Finish this invocation. Must be called on the thread that started it.<br>
+         * Clears the interrupt caused by cancelling,
+         * so it does not leak into the next task on the thread.
+         */
+        public void finish() {
+            ScheduledFuture<?> timeout = deadline;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            if (!state.compareAndSet(RUNNING, FINISHED)) {
+                while (state.get() != CANCELLED) {
+                    Thread.onSpinWait();
+                }
+                Thread.interrupted();
+            }
+            running.computeIfPresent(user, (u, invocations) -> {
+                invocations.remove(this);
+                return invocations.isEmpty() ? null : invocations;
+            });
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.execution;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets, one per key.<br>
+ * A bucket holds up to {@code burst} tokens and refills at {@code perSecond} tokens per second.
+ * Taking tokens is a single compare-and-set, and a rejected attempt changes nothing.<br>
+ * Each bucket is stored as the time at which it is full again
+ * (the generic cell rate algorithm), so no refill task is needed.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class StrRateLimiter {
+
+    /**
+     * Amount of buckets above which full buckets are removed.
+     */
+    private static final int SWEEP_THRESHOLD = 1024;
+
+    /**
+     * Buckets by key. Each holds the {@link System#nanoTime()} at which the bucket is full.
+     */
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Try to take tokens from the bucket of a key.
+     * @param key the key of the bucket (usually the name of a user)
+     * @param cost the amount of tokens to take
+     * @param perSecond the amount of tokens refilled per second
+     * @param burst the maximal amount of tokens in the bucket
+     * @return true if the tokens were taken, false if there were not enough
+     */
+    public boolean tryAcquire(
+            @NotNull final String key,
+            final int cost,
+            final int perSecond,
+            final int burst
+    ) {
+        if (cost <= 0) {
+            return true;
+        }
+        long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, perSecond);
+        long capacity = interval * Math.max(1, burst);
+        AtomicLong bucket = bucket(key);
+        while (true) {
+            long now = System.nanoTime();
+            long full = bucket.get();
+            long next = Math.max(full, now) + interval * cost;
+            if (next - now > capacity) {
+                return false;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Get the amount of buckets.
+     * @return the amount of buckets
+     */
+    public int getBuckets() {
+        return buckets.size();
+    }
+
+    /**
+     * Get or create the bucket of a key.<br>
+     * Creating a bucket when there are many removes the full ones.
+     * @param key the key of the bucket
+     * @return the bucket
+     */
+    private @NotNull AtomicLong bucket(@NotNull final String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() > SWEEP_THRESHOLD) {
+            long now = System.nanoTime();
+            buckets.values().removeIf(b -> b.get() - now <= 0);
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.execution;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queue of work for the main (sync) thread, drained with a time budget.<br>
+ * Any thread can {@link #submit(Runnable) submit} work. The main thread calls
+ * {@link #drain(long)} once per tick, from a single repeating task,
+ * which runs work until the budget is used up. The rest rolls over to the next tick.<br>
+ * Work can not be interrupted, so a tick can overrun its budget by at most one task.
+ * This is tracked in {@link #getLastOverrunNanos()} and {@link #getMaxOverrunNanos()}.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class StrSyncQueue {
+
+    /**
+     * Queued work.
+     */
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Amount of queued work.
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * Nanoseconds the last drain took longer than its budget.
+     */
+    private volatile long lastOverrunNanos;
+
+    /**
+     * Most nanoseconds a drain took longer than its budget.
+     */
+    private volatile long maxOverrunNanos;
+
+    /**
+     * Amount of drains that took longer than their budget.
+     */
+    private volatile long overrunTicks;
+
+    /**
+     * Queue work for the main thread.
+     * @param task the work to run
+     */
+    public void submit(@NotNull final Runnable task) {
+        tasks.add(task);
+        queued.incrementAndGet();
+    }
+
+    /**
+     * Run queued work until the queue is empty or the budget is used up.
+     * Always runs at least one task, so work is never starved.<br>
+     * A task throwing an exception does not stop the drain,
+     * the exception is passed to the thread's uncaught exception handler.<br>
+     * Must only be called from the main thread.
+     * @param budgetNanos the time budget in nanoseconds
+     * @return the amount of tasks that ran
+     */
+    public int drain(final long budgetNanos) {
+        long start = System.nanoTime();
+        int ran = 0;
+        Runnable task;
+        while ((ran == 0 || System.nanoTime() - start < budgetNanos) && (task = tasks.poll()) != null) {
+            queued.decrementAndGet();
+            ran++;
+            try {
+                task.run();
+            } catch (RuntimeException | Error e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+        if (ran == 0) {
+            lastOverrunNanos = 0;
+            return 0;
+        }
+        long overrun = Math.max(0, System.nanoTime() - start - budgetNanos);
+        lastOverrunNanos = overrun;
+        if (overrun > 0) {
+            overrunTicks++;
+            maxOverrunNanos = Math.max(maxOverrunNanos, overrun);
+        }
+        return ran;
+    }
+
+    /**
+     * Run all queued work, without a time budget, including work queued while draining.<br>
+     * Used when shutting down, once the repeating task that calls {@link #drain(long)} is cancelled,
+     * so work that was queued still runs and nothing waits for it forever.
+     * Does not count towards the overrun metrics.<br>
+     * Must only be called from the main thread.
+     * @return the amount of tasks that ran
+     */
+    public int drainAll() {
+        int ran = 0;
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            queued.decrementAndGet();
+            ran++;
+            try {
+                task.run();
+            } catch (RuntimeException | Error e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+        return ran;
+    }
+
+    /**
+     * Get the amount of queued work.
+     * @return the queue depth
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Get how long the last drain took longer than its budget.
+     * @return the overrun in nanoseconds, {@code 0} if it stayed within budget
+     */
+    public long getLastOverrunNanos() {
+        return lastOverrunNanos;
+    }
+
+    /**
+     * Get the longest a drain took longer than its budget.
+     * @return the maximal overrun in nanoseconds
+     */
+    public long getMaxOverrunNanos() {
+        return maxOverrunNanos;
+    }
+
+    /**
+     * Get the amount of drains that took longer than their budget.
+     * @return the amount of overrun ticks
+     */
+    public long getOverrunTicks() {
+        return overrunTicks;
+    }
+}
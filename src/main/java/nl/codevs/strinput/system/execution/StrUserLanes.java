@@ -0,0 +1,246 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.execution;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user command lanes on a shared {@link StrExecutor}.<br>
+ * Tasks with the same key run one at a time, in the order they were submitted.
+ * Tasks with different keys run in parallel on the executor.<br>
+ * A lane only exists while it has tasks, and occupies at most one
+ * thread of the executor. No threads are created per key.<br>
+ * Each lane holds at most {@link #getCapacity() capacity} tasks (including the running one),
+ * further tasks for the key are rejected until it has room again.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class StrUserLanes {
+
+    /**
+     * The executor lanes are drained on.
+     */
+    private final StrExecutor executor;
+
+    /**
+     * The maximal amount of tasks in a lane.
+     */
+    private final int capacity;
+
+    /**
+     * Active lanes by key.<br>
+     * All changes to a lane happen inside a {@code compute} on this map,
+     * which makes them atomic per key.
+     */
+    private final ConcurrentHashMap<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * Create new user lanes, without a limit on the tasks in a lane.
+     * @param laneExecutor the executor to run the lanes on
+     */
+    public StrUserLanes(@NotNull final StrExecutor laneExecutor) {
+        this(laneExecutor, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create new user lanes.
+     * @param laneExecutor the executor to run the lanes on
+     * @param laneCapacity the maximal amount of tasks in a lane
+     *                     (usually the {@link nl.codevs.strinput.system.StrSettings#getCommandQueueDepth() queue depth})
+     */
+    public StrUserLanes(@NotNull final StrExecutor laneExecutor, final int laneCapacity) {
+        this.executor = laneExecutor;
+        this.capacity = Math.max(1, laneCapacity);
+    }
+
+    /**
+     * Execute a task in the lane of a key, with the default priority ({@code 0}).
+     * @param key the key of the lane (usually the name of a user)
+     * @param task the task to run
+     * @param onReject ran if the task is rejected by the executor, or the lane is full
+     */
+    public void execute(
+            @NotNull final String key,
+            @NotNull final Runnable task,
+            @NotNull final Runnable onReject
+    ) {
+        execute(key, task, onReject, 0);
+    }
+
+    /**
+     * Execute a task in the lane of a key.<br>
+     * The priority is used when the lane is scheduled on the executor.
+     * If the lane is already active, the task runs after the tasks before it, regardless of priority.
+     * @param key the key of the lane (usually the name of a user)
+     * @param task the task to run
+     * @param onReject ran if the task is rejected by the executor, or the lane is full
+     * @param priority the priority of the task, higher runs first
+     */
+    public void execute(
+            @NotNull final String key,
+            @NotNull final Runnable task,
+            @NotNull final Runnable onReject,
+            final int priority
+    ) {
+        Lane lane = new Lane(key);
+        boolean[] added = new boolean[1];
+        Lane current = lanes.compute(key, (k, l) -> {
+            Lane result = l == null ? lane : l;
+            if (result.tasks.size() < capacity) {
+                result.tasks.add(new Entry(task, onReject));
+                added[0] = true;
+            }
+            return result;
+        });
+
+        if (!added[0]) {
+            // The lane is full
+            onReject.run();
+        } else if (current == lane) {
+            // Schedule the lane only if it was just created
+            executor.execute(lane, lane::rejectAll, priority);
+        }
+    }
+
+    /**
+     * Get the maximal amount of tasks in a lane.
+     * @return the capacity of each lane
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the amount of lanes with queued or running tasks.
+     * @return the amount of active lanes
+     */
+    public int getActiveLanes() {
+        return lanes.size();
+    }
+
+    /**
+     * A task in a lane.
+     * @param task the task
+     * @param onReject the rejection callback
+     */
+    private record Entry(Runnable task, Runnable onReject) { }
+
+    /**
+     * A lane of tasks for one key.
+     */
+    private final class Lane implements Runnable, StrExecutor.Evictable {
+
+        /**
+         * The key of this lane.
+         */
+        private final String key;
+
+        /**
+         * Queued tasks. Only accessed inside a {@code compute} on {@link #lanes}.
+         */
+        private final ArrayDeque<Entry> tasks = new ArrayDeque<>();
+
+        /**
+         * The next entry, set inside {@link #poll()}.
+         */
+        private Entry next;
+
+        /**
+         * Create a new lane.
+         * @param laneKey the key of this lane
+         */
+        Lane(@NotNull final String laneKey) {
+            this.key = laneKey;
+        }
+
+        /**
+         * Reject all tasks in this lane, and remove it.
+         * Does nothing if the lane was already removed.
+         */
+        private void rejectAll() {
+            if (!lanes.remove(key, this)) {
+                return;
+            }
+            for (Entry entry : tasks) {
+                entry.onReject.run();
+            }
+        }
+
+        /**
+         * Remove this lane if it holds a single task that did not start yet.
+         * @return the rejection callback of that task,
+         * or {@code null} if the lane has more tasks or started running
+         */
+        @Override
+        public @Nullable Runnable evict() {
+            Entry[] evicted = new Entry[1];
+            lanes.computeIfPresent(key, (k, l) -> {
+                if (l != this || next != null || tasks.size() != 1) {
+                    return l;
+                }
+                evicted[0] = tasks.poll();
+                return null;
+            });
+            return evicted[0] == null ? null : evicted[0].onReject;
+        }
+
+        /**
+         * Run all tasks in this lane, until it is empty.<br>
+         * A task throwing an exception does not stop the lane,
+         * the exception is passed to the thread's uncaught exception handler.
+         */
+        @Override
+        public void run() {
+            Entry entry;
+            while ((entry = poll()) != null) {
+                try {
+                    entry.task.run();
+                } catch (RuntimeException | Error e) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            }
+        }
+
+        /**
+         * Get the next task, and remove this lane if it is done.<br>
+         * The task that is running stays in the queue until it is done,
+         * so the lane is not removed (and re-created) while it runs.
+         * @return the next entry, or {@code null} if the lane is empty
+         */
+        private Entry poll() {
+            lanes.compute(key, (k, l) -> {
+                if (l != this) {
+                    next = null;
+                    return l;
+                }
+                if (next != null) {
+                    tasks.poll();
+                }
+                next = tasks.peek();
+                return next == null ? null : this;
+            });
+            return next;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * Command execution.
+ * <ul>
+ *     <li>{@link nl.codevs.strinput.system.execution.StrExecutor}
+ *     the bounded pool that runs asynchronous commands
+ *     for a {@link nl.codevs.strinput.system.StrCenter}</li>
+ *     <li>{@link nl.codevs.strinput.system.execution.StrUserLanes}
+ *     runs the commands of each user in order, on a shared executor</li>
+ *     <li>{@link nl.codevs.strinput.system.execution.CommandResult}
+ *     the outcome of a command, with the time spent in each phase</li>
+ *     <li>{@link nl.codevs.strinput.system.execution.StrRateLimiter}
+ *     lock-free per-user token buckets for admission control</li>
+ *     <li>{@link nl.codevs.strinput.system.execution.StrInvocations}
+ *     running commands, with deadlines and cancellation</li>
+ *     <li>{@link nl.codevs.strinput.system.execution.StrSyncQueue}
+ *     main thread work, drained each tick within a time budget</li>
+ * </ul>
+ */
+package nl.codevs.strinput.system.execution;
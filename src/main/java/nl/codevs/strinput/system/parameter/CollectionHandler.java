@@ -0,0 +1,283 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.parameter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Parameter handler for {@link List}, {@link Set}, array and {@link Optional} parameters,
+ * built from the handler of their elements.<br>
+ * Elements are separated by {@link #SEPARATOR}, and parsed in a single pass:
+ * {@code players=Steve,Alex} gives a list of two players.
+ * Elements with multiple options fail the whole value,
+ * as option picking does not apply to a single element.<br>
+ * These handlers are not registered, they are created per parameter (see {@link #of(Type, Function)}).
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class CollectionHandler implements StrParameterHandler<Object> {
+
+    /**
+     * The separator between elements.
+     */
+    public static final char SEPARATOR = ',';
+
+    /**
+     * The kinds of containers.
+     */
+    private enum Kind {
+        /**
+         * {@link List}, parsed into an {@link ArrayList}.
+         */
+        LIST,
+        /**
+         * {@link Set}, parsed into a {@link LinkedHashSet}.
+         */
+        SET,
+        /**
+         * Array.
+         */
+        ARRAY,
+        /**
+         * {@link Optional}, of exactly one element.
+         */
+        OPTIONAL
+    }
+
+    /**
+     * The kind of container.
+     */
+    private final Kind kind;
+
+    /**
+     * The type of the elements.
+     */
+    private final Class<?> elementType;
+
+    /**
+     * The handler of the elements.
+     */
+    private final StrParameterHandler<?> elementHandler;
+
+    /**
+     * Create a new collection handler.
+     * @param containerKind the kind of container
+     * @param elements the type of the elements
+     * @param handler the handler of the elements
+     */
+    private CollectionHandler(
+            @NotNull final Kind containerKind,
+            @NotNull final Class<?> elements,
+            @NotNull final StrParameterHandler<?> handler
+    ) {
+        this.kind = containerKind;
+        this.elementType = elements;
+        this.elementHandler = handler;
+    }
+
+    /**
+     * Create a handler for a collection type.
+     * @param type the (generic) type of the parameter
+     * @param handlers gets the handler for the elements,
+     *                 or {@code null} if there is no handler for them
+     * @return the handler, or {@code null} if the type is not a collection type,
+     * its element type is not a plain class, or there is no handler for its elements
+     */
+    public static @Nullable CollectionHandler of(
+            @NotNull final Type type,
+            @NotNull final Function<Class<?>, StrParameterHandler<?>> handlers
+    ) {
+        Kind kind;
+        Type element;
+        if (type instanceof Class<?> && ((Class<?>) type).isArray()) {
+            kind = Kind.ARRAY;
+            element = ((Class<?>) type).getComponentType();
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Type raw = parameterized.getRawType();
+            if (raw == List.class || raw == Collection.class) {
+                kind = Kind.LIST;
+            } else if (raw == Set.class) {
+                kind = Kind.SET;
+            } else if (raw == Optional.class) {
+                kind = Kind.OPTIONAL;
+            } else {
+                return null;
+            }
+            element = parameterized.getActualTypeArguments()[0];
+        } else {
+            return null;
+        }
+        if (!(element instanceof Class<?>)) {
+            return null;
+        }
+        Class<?> elementClass = (Class<?>) element;
+        StrParameterHandler<?> handler = handlers.apply(elementClass);
+        return handler == null ? null : new CollectionHandler(kind, elementClass, handler);
+    }
+
+    /**
+     * Get whether this handles optional values.
+     * @return true for {@link Optional} parameters
+     */
+    public boolean isOptional() {
+        return kind == Kind.OPTIONAL;
+    }
+
+    /**
+     * Get the empty value of this type ({@link Optional#empty()}, or an empty collection).
+     * @return the empty value
+     */
+    public @NotNull Object empty() {
+        return build(new ArrayList<>());
+    }
+
+    /**
+     * Get all possible values for this type.<br>
+     * Collections have too many possibilities to list.
+     *
+     * @return an empty list
+     */
+    @Override
+    public List<Object> getPossibilities() {
+        return List.of();
+    }
+
+    /**
+     * Whether this handler supports the type or not.
+     *
+     * @param type a type
+     *
+     * @return true if it is the container type of this handler
+     */
+    @Override
+    public boolean supports(@NotNull final Class<?> type) {
+        return switch (kind) {
+            case LIST -> type == List.class || type == Collection.class;
+            case SET -> type == Set.class;
+            case ARRAY -> type.isArray() && type.getComponentType() == elementType;
+            case OPTIONAL -> type == Optional.class;
+        };
+    }
+
+    /**
+     * Parse separated elements, in a single pass over the text.
+     * @param text the string to parse
+     * @return the collection, array or optional
+     * @throws StrParseException if an element cannot be parsed, has multiple options,
+     * or an optional gets more than one element
+     */
+    @Override
+    public @NotNull Object parse(@NotNull final String text) throws StrParseException {
+        List<Object> elements = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i < text.length() && text.charAt(i) != SEPARATOR) {
+                continue;
+            }
+            String element = text.substring(start, i).trim();
+            start = i + 1;
+            if (element.isEmpty()) {
+                continue;
+            }
+            try {
+                elements.add(elementHandler.parseSafe(element));
+            } catch (StrWhichException e) {
+                throw new StrParseException(
+                        getClass(),
+                        text,
+                        "Element " + element + " has multiple options"
+                );
+            }
+        }
+        if (kind == Kind.OPTIONAL && elements.size() > 1) {
+            throw new StrParseException(getClass(), text, "Expected at most one " + elementType.getSimpleName());
+        }
+        return build(elements);
+    }
+
+    /**
+     * Build the container from parsed elements.
+     * @param elements the elements
+     * @return the container
+     */
+    private @NotNull Object build(@NotNull final List<Object> elements) {
+        return switch (kind) {
+            case LIST -> elements;
+            case SET -> new LinkedHashSet<>(elements);
+            case OPTIONAL -> elements.isEmpty() ? Optional.empty() : Optional.of(elements.get(0));
+            case ARRAY -> {
+                Object array = Array.newInstance(elementType, elements.size());
+                for (int i = 0; i < elements.size(); i++) {
+                    Array.set(array, i, elements.get(i));
+                }
+                yield array;
+            }
+        };
+    }
+
+    /**
+     * Parse an instance of this type to a string, with separated elements.
+     *
+     * @param input the collection, array or optional
+     *
+     * @return the string representation of the elements
+     */
+    @Override
+    public @NotNull String toString(@NotNull final Object input) {
+        List<String> elements = new ArrayList<>();
+        if (input instanceof Optional<?>) {
+            ((Optional<?>) input).ifPresent(e -> elements.add(elementHandler.toStringForce(e)));
+        } else if (input instanceof Collection<?>) {
+            for (Object element : (Collection<?>) input) {
+                elements.add(elementHandler.toStringForce(element));
+            }
+        } else if (input.getClass().isArray()) {
+            for (int i = 0; i < Array.getLength(input); i++) {
+                elements.add(elementHandler.toStringForce(Array.get(input, i)));
+            }
+        }
+        return String.join(String.valueOf(SEPARATOR), elements);
+    }
+
+    /**
+     * Get a random default value.
+     *
+     * @return the random default, of random default elements
+     */
+    @Override
+    public @NotNull String getRandomDefault() {
+        if (kind == Kind.OPTIONAL) {
+            return elementHandler.getRandomDefault();
+        }
+        return elementHandler.getRandomDefault() + SEPARATOR + elementHandler.getRandomDefault();
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.parameter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Parameter handler for any enum, used when no other handler supports the enum
+ * (see {@link nl.codevs.strinput.system.StrCenter.ParameterHandling#getHandler(Class)}).<br>
+ * Constants are matched by their {@link Enum#name()} or {@link Enum#toString()}, ignoring case.
+ * Each enum gets one handler (see {@link #of(Class)}), with an index built once:
+ * <ul>
+ *     <li>exact names are looked up in a hash map</li>
+ *     <li>otherwise, the constants starting with the input are found by binary search
+ *     in the sorted names, and if there are multiple, a {@link StrWhichException} is thrown</li>
+ * </ul>
+ *
+ * @param <E> the enum type
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class EnumHandler<E extends Enum<E>> implements StrParameterHandler<E> {
+
+    /**
+     * Handlers by enum class.
+     */
+    private static final ClassValue<EnumHandler<?>> HANDLERS = new ClassValue<>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected EnumHandler<?> computeValue(@NotNull final Class<?> type) {
+            return new EnumHandler(type);
+        }
+    };
+
+    /**
+     * The enum type.
+     */
+    private final Class<E> type;
+
+    /**
+     * The constants of the enum.
+     */
+    private final List<E> constants;
+
+    /**
+     * Constants by case-folded name.
+     */
+    private final Map<String, E> exact = new HashMap<>();
+
+    /**
+     * Case-folded names, sorted, for prefix lookups.
+     */
+    private final String[] names;
+
+    /**
+     * The constant of each name in {@link #names}.
+     */
+    private final E[] byName;
+
+    /**
+     * Create a new enum handler, and index the constants.
+     * @param enumType the enum type
+     */
+    private EnumHandler(@NotNull final Class<E> enumType) {
+        this.type = enumType;
+        E[] values = enumType.getEnumConstants();
+        this.constants = List.of(values);
+        TreeMap<String, E> sorted = new TreeMap<>();
+        for (E constant : values) {
+            sorted.putIfAbsent(fold(constant.name()), constant);
+            sorted.putIfAbsent(fold(constant.toString()), constant);
+        }
+        exact.putAll(sorted);
+        this.names = sorted.keySet().toArray(new String[0]);
+        this.byName = Arrays.copyOf(values, names.length);
+        int i = 0;
+        for (E constant : sorted.values()) {
+            byName[i++] = constant;
+        }
+    }
+
+    /**
+     * Get the handler for an enum type.
+     * @param type the type
+     * @return the handler, or {@code null} if the type is not an enum
+     */
+    public static @Nullable EnumHandler<?> of(@NotNull final Class<?> type) {
+        Class<?> enumType = type;
+        if (!enumType.isEnum() && enumType.getSuperclass() != null && enumType.getSuperclass().isEnum()) {
+            // Constant with a body
+            enumType = enumType.getSuperclass();
+        }
+        return enumType.isEnum() ? HANDLERS.get(enumType) : null;
+    }
+
+    /**
+     * Get all possible values for this type.
+     *
+     * @return the constants of the enum
+     */
+    @Override
+    public List<E> getPossibilities() {
+        return constants;
+    }
+
+    /**
+     * Get the constants with a name starting with the input, ignoring case.
+     *
+     * @param input the input string to filter by
+     *
+     * @return the matching constants, in declaration order
+     */
+    @Override
+    public @NotNull List<E> getPossibilities(@NotNull final String input) {
+        String prefix = fold(input.trim());
+        if (prefix.isEmpty()) {
+            return constants;
+        }
+        return new ArrayList<>(startingWith(prefix));
+    }
+
+    /**
+     * Whether this handler supports the type or not.
+     *
+     * @param enumType a type
+     *
+     * @return true if it is the enum of this handler
+     */
+    @Override
+    public boolean supports(@NotNull final Class<?> enumType) {
+        return type.isAssignableFrom(enumType);
+    }
+
+    /**
+     * Parse a string to a constant of the enum.
+     *
+     * @param text the string to parse
+     *
+     * @return the constant named by the text, or the only constant starting with it
+     *
+     * @throws StrWhichException if multiple constants start with the text
+     * @throws StrParseException if no constant starts with the text
+     */
+    @Override
+    public @NotNull E parse(@NotNull final String text) throws StrWhichException, StrParseException {
+        String folded = fold(text.trim());
+        E match = exact.get(folded);
+        if (match != null) {
+            return match;
+        }
+        EnumSet<E> matches = startingWith(folded);
+        if (matches.size() == 1) {
+            return matches.iterator().next();
+        }
+        if (matches.isEmpty()) {
+            throw new StrParseException(type, text, "No " + type.getSimpleName() + " named " + text);
+        }
+        throw new StrWhichException(type, text, new ArrayList<>(matches));
+    }
+
+    /**
+     * Parse a constant to a string.
+     *
+     * @param input the constant
+     *
+     * @return the name of the constant
+     */
+    @Override
+    public @NotNull String toString(@NotNull final E input) {
+        return input.name();
+    }
+
+    /**
+     * Get a random default value.
+     *
+     * @return the name of a random constant
+     */
+    @Override
+    public @NotNull String getRandomDefault() {
+        return constants.isEmpty() ? "" : constants.get(RANDOM.nextInt(constants.size())).name();
+    }
+
+    /**
+     * Get the constants with a (case-folded) name starting with a prefix.
+     * @param prefix the case-folded prefix
+     * @return the constants
+     */
+    private @NotNull EnumSet<E> startingWith(@NotNull final String prefix) {
+        EnumSet<E> matches = EnumSet.noneOf(type);
+        int i = Arrays.binarySearch(names, prefix);
+        for (i = i < 0 ? -i - 1 : i; i < names.length && names[i].startsWith(prefix); i++) {
+            matches.add(byName[i]);
+        }
+        return matches;
+    }
+
+    /**
+     * Fold the case of a name.
+     * @param name the name
+     * @return the lowercase name
+     */
+    private static @NotNull String fold(@NotNull final String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
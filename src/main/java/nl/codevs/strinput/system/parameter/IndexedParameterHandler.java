@@ -0,0 +1,135 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.parameter;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A parameter handler with possibilities that change at runtime, like online players.<br>
+ * The possibilities are kept in a {@link PossibilityIndex}, so filtering and parsing
+ * use a prefix lookup instead of scanning them all.
+ * The index is rebuilt (lazily, on the next lookup) after {@link #invalidate()},
+ * which should be called whenever the possibilities change.
+ *
+ * @param <T> the type that this handler handles
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public abstract class IndexedParameterHandler<T> implements StrParameterHandler<T> {
+
+    /**
+     * The version of the possibilities, increased by {@link #invalidate()}.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * The current index. May be of an older version.
+     */
+    private volatile PossibilityIndex<T> index;
+
+    /**
+     * List the current possibilities.<br>
+     * Only called when the index is (re)built.
+     * @return the possibilities
+     */
+    protected abstract @NotNull Collection<? extends T> listPossibilities();
+
+    /**
+     * Mark the possibilities as changed, so the index is rebuilt on the next lookup.
+     */
+    public final void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Get the version of the possibilities.<br>
+     * Changes every time the handler is {@link #invalidate() invalidated}.
+     * @return the version
+     */
+    public final long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Get the index of the current possibilities, and build it if it is out of date.
+     * @return the index
+     */
+    public final @NotNull PossibilityIndex<T> getIndex() {
+        long current = version.get();
+        PossibilityIndex<T> built = index;
+        if (built == null || built.getVersion() != current) {
+            built = PossibilityIndex.of(listPossibilities(), this::toString, current);
+            index = built;
+        }
+        return built;
+    }
+
+    /**
+     * Get all possible values for this type.
+     *
+     * @return the indexed possibilities
+     */
+    @Override
+    public List<T> getPossibilities() {
+        return getIndex().getValues();
+    }
+
+    /**
+     * Get the possible values with a string form starting with the input, ignoring case.
+     *
+     * @param input the input string to filter by
+     *
+     * @return the matching possibilities
+     */
+    @Override
+    public @NotNull List<T> getPossibilities(@NotNull final String input) {
+        return getIndex().startingWith(input);
+    }
+
+    /**
+     * Find the possibility named by some text.<br>
+     * An exact (case-insensitive) match is picked over possibilities that only start with the text.
+     * @param type the type, for exceptions
+     * @param text the text
+     * @return the possibility named by the text, or the only one starting with it
+     * @throws StrWhichException if multiple possibilities start with the text
+     * @throws StrParseException if no possibility starts with the text
+     */
+    protected final @NotNull T find(
+            @NotNull final Class<?> type,
+            @NotNull final String text
+    ) throws StrWhichException, StrParseException {
+        PossibilityIndex<T> current = getIndex();
+        T match = current.exact(text);
+        if (match != null) {
+            return match;
+        }
+        List<T> options = current.startingWith(text);
+        if (options.size() == 1) {
+            return options.get(0);
+        }
+        if (options.isEmpty()) {
+            throw new StrParseException(type, text, "No options found for input");
+        }
+        throw new StrWhichException(type, text, options);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.parameter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * An immutable index of the possibilities of a parameter handler, by their string forms.<br>
+ * The case-folded strings are sorted once, so the possibilities starting with some input
+ * are found by binary search, instead of converting and comparing all of them.
+ * Each index carries the version of the possibilities it was built from
+ * (see {@link IndexedParameterHandler}).
+ *
+ * @param <T> the type of the possibilities
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class PossibilityIndex<T> {
+
+    /**
+     * The version of the possibilities.
+     */
+    private final long version;
+
+    /**
+     * The possibilities, in their original order.
+     */
+    private final List<T> values;
+
+    /**
+     * The string forms of the possibilities, in their original order.
+     */
+    private final List<String> strings;
+
+    /**
+     * Case-folded string forms, sorted.
+     */
+    private final String[] keys;
+
+    /**
+     * The position in {@link #values} of each key in {@link #keys}.
+     */
+    private final int[] positions;
+
+    /**
+     * Create a new index.
+     * @param possibilities the possibilities
+     * @param stringForm the string form of a possibility
+     * @param indexVersion the version of the possibilities
+     */
+    private PossibilityIndex(
+            @NotNull final Collection<? extends T> possibilities,
+            @NotNull final Function<T, String> stringForm,
+            final long indexVersion
+    ) {
+        this.version = indexVersion;
+        this.values = Collections.unmodifiableList(new ArrayList<>(possibilities));
+        String[] forms = new String[values.size()];
+        Integer[] order = new Integer[forms.length];
+        for (int i = 0; i < forms.length; i++) {
+            forms[i] = stringForm.apply(values.get(i));
+            order[i] = i;
+        }
+        this.strings = List.of(forms);
+        String[] folded = new String[forms.length];
+        for (int i = 0; i < forms.length; i++) {
+            folded[i] = fold(forms[i]);
+        }
+        Arrays.sort(order, Comparator.comparing(i -> folded[i]));
+        this.keys = new String[forms.length];
+        this.positions = new int[forms.length];
+        for (int i = 0; i < forms.length; i++) {
+            keys[i] = folded[order[i]];
+            positions[i] = order[i];
+        }
+    }
+
+    /**
+     * Build an index.
+     * @param possibilities the possibilities
+     * @param stringForm the string form of a possibility (usually {@link StrParameterHandler#toString(Object)})
+     * @param version the version of the possibilities
+     * @param <T> the type of the possibilities
+     * @return the index
+     */
+    public static <T> @NotNull PossibilityIndex<T> of(
+            @NotNull final Collection<? extends T> possibilities,
+            @NotNull final Function<T, String> stringForm,
+            final long version
+    ) {
+        return new PossibilityIndex<>(possibilities, stringForm, version);
+    }
+
+    /**
+     * Get the possibility with a string form equal to the input, ignoring case.
+     * @param input the input
+     * @return the first such possibility, or {@code null} if there is none
+     */
+    public @Nullable T exact(@NotNull final String input) {
+        String key = fold(input.trim());
+        int i = lowerBound(key);
+        return i < keys.length && keys[i].equals(key) ? values.get(positions[i]) : null;
+    }
+
+    /**
+     * Get the possibilities with a string form starting with the input, ignoring case.
+     * @param input the input
+     * @return the matching possibilities, in the order of their string forms
+     */
+    public @NotNull List<T> startingWith(@NotNull final String input) {
+        String prefix = fold(input.trim());
+        if (prefix.isEmpty()) {
+            return values;
+        }
+        List<T> matches = new ArrayList<>();
+        for (int i = lowerBound(prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+            matches.add(values.get(positions[i]));
+        }
+        return matches;
+    }
+
+    /**
+     * Get the version of the possibilities this index was built from.
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the possibilities.
+     * @return the possibilities, in their original order
+     */
+    public @NotNull List<T> getValues() {
+        return values;
+    }
+
+    /**
+     * Get the string forms of the possibilities.
+     * @return the string forms, in the original order of the possibilities
+     */
+    public @NotNull List<String> getStrings() {
+        return strings;
+    }
+
+    /**
+     * Get the index of the first key that is not smaller than some key.
+     * @param key the key
+     * @return the index, or the amount of keys if all are smaller
+     */
+    private int lowerBound(@NotNull final String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Fold the case of a string.
+     * @param string the string
+     * @return the lower case string
+     */
+    private static @NotNull String fold(@NotNull final String string) {
+        return string.toLowerCase(Locale.ROOT);
+    }
+}
@@ -3,5 +3,10 @@
  * Each parameter handler must extend
  * {@link nl.codevs.strinput.system.parameter.StrParameterHandler}
  * and will handle a select set of types.
+ * {@link nl.codevs.strinput.system.parameter.CollectionHandler} handles lists, sets, arrays and optionals
+ * of any type with a handler, and {@link nl.codevs.strinput.system.parameter.EnumHandler} handles any enum.
+ * Handlers with possibilities that change at runtime can extend
+ * {@link nl.codevs.strinput.system.parameter.IndexedParameterHandler}, which keeps them in a
+ * {@link nl.codevs.strinput.system.parameter.PossibilityIndex} for prefix lookups.
  */
 package nl.codevs.strinput.system.parameter;
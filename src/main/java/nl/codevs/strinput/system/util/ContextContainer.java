@@ -1,16 +1,13 @@
 package nl.codevs.strinput.system.util;
 
-import java.util.Enumeration;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
  * Context container.
  * <p>
- * This system requires:
- * <ul>
- *     <li>a new thread for each call</li>
- *     <li>a call to {@link #touch(T)} before context is accessed</li>
- * </ul>
+ * Stores data for the current thread.
+ * This system requires a call to {@link #touch(T)}
+ * at the start of each call, before context is accessed.
+ * Works for pooled threads (where data is overwritten by the next call)
+ * and virtual threads alike.
  *
  * @author Sjoerd van de Goor
  * @since v0.1
@@ -18,9 +15,9 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ContextContainer<T> {
 
     /**
-     * Map containing contextual data.
+     * Contextual data of the current thread.
      */
-    private final ConcurrentHashMap<Thread, T> MAP = new ConcurrentHashMap<>();
+    private final ThreadLocal<T> data = new ThreadLocal<>();
 
     /**
      * Get the current data from the current thread's context.
@@ -28,26 +25,23 @@ public class ContextContainer<T> {
      * @return the data for this thread
      */
     public T get() {
-        return MAP.get(Thread.currentThread());
+        return data.get();
     }
 
     /**
-     * Adds the data to the context map and removes dead threads.
+     * Adds the data to the context of the current thread.
      *
-     * @param data the data
+     * @param value the data
      */
-    public void touch(final T data) {
-        synchronized (MAP) {
-            MAP.put(Thread.currentThread(), data);
-
-            Enumeration<Thread> contextKeys = MAP.keys();
+    public void touch(final T value) {
+        data.set(value);
+    }
 
-            while (contextKeys.hasMoreElements()) {
-                Thread thread = contextKeys.nextElement();
-                if (!thread.isAlive()) {
-                    MAP.remove(thread);
-                }
-            }
-        }
+    /**
+     * Removes the data from the context of the current thread,
+     * so it is no longer reachable from it.
+     */
+    public void remove() {
+        data.remove();
     }
 }
@@ -0,0 +1,196 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+/**
+ * Registry of handlers that support certain types.<br>
+ * Handlers are resolved by priority (higher first), then in the order they were registered.
+ * Each handler instance is registered once, registering it again is ignored.
+ * Different instances of the same class (for example, configured differently) are all registered.<br>
+ * The registered handlers are published copy-on-write, and resolved handlers are cached per type
+ * until handlers are registered again, so resolving is lock-free and does not depend
+ * on the amount of handlers.
+ *
+ * @param <H> the type of handler
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class HandlerRegistry<H> {
+
+    /**
+     * The priority of handlers registered without one.
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    /**
+     * Orders entries by priority (higher first), then registration order.
+     */
+    private static final Comparator<Entry<?>> ORDER = Comparator
+            .comparingInt((Entry<?> e) -> -e.priority)
+            .thenComparingLong(e -> e.sequence);
+
+    /**
+     * Whether a handler supports a type.
+     */
+    private final BiPredicate<H, Class<?>> supports;
+
+    /**
+     * The registered handlers, in resolution order. Never modified, only replaced.
+     */
+    private volatile Entry<H>[] entries;
+
+    /**
+     * Resolved handlers by type ({@code null} if no handler supports the type).
+     * Replaced together with {@link #entries}.
+     */
+    private volatile ClassValue<H> resolved;
+
+    /**
+     * The sequence number of the next registered handler.
+     */
+    private long sequence;
+
+    /**
+     * Create a new, empty registry.
+     * @param supportsType whether a handler supports a type
+     */
+    public HandlerRegistry(@NotNull final BiPredicate<H, Class<?>> supportsType) {
+        this.supports = supportsType;
+        publish(toArray(List.of()));
+    }
+
+    /**
+     * Register handlers with the {@link #DEFAULT_PRIORITY}.
+     * @param handlers the handlers
+     * @return the amount of handlers registered (excluding handlers already registered)
+     */
+    @SafeVarargs
+    public final int register(@NotNull final H... handlers) {
+        return register(DEFAULT_PRIORITY, handlers);
+    }
+
+    /**
+     * Register handlers.<br>
+     * Handlers that are already registered are ignored.
+     * @param priority the priority of the handlers, higher is resolved first
+     * @param handlers the handlers
+     * @return the amount of handlers registered (excluding handlers already registered)
+     */
+    @SafeVarargs
+    public final synchronized int register(final int priority, @NotNull final H... handlers) {
+        List<Entry<H>> updated = new ArrayList<>(Arrays.asList(entries));
+        int added = 0;
+        for (H handler : handlers) {
+            if (isRegistered(updated, handler)) {
+                continue;
+            }
+            updated.add(new Entry<>(handler, priority, sequence++));
+            added++;
+        }
+        if (added > 0) {
+            updated.sort(ORDER);
+            publish(toArray(updated));
+        }
+        return added;
+    }
+
+    /**
+     * Resolve the handler for a type.
+     * @param type the type
+     * @return the first handler that supports the type, or {@code null} if there is none
+     */
+    public @Nullable H resolve(@NotNull final Class<?> type) {
+        return resolved.get(type);
+    }
+
+    /**
+     * Get the registered handlers.
+     * @return the handlers, in resolution order
+     */
+    public @NotNull List<H> getHandlers() {
+        List<H> handlers = new ArrayList<>();
+        for (Entry<H> entry : entries) {
+            handlers.add(entry.handler);
+        }
+        return handlers;
+    }
+
+    /**
+     * Get whether a handler is registered.
+     * @param entries the entries
+     * @param handler the handler
+     * @return true if an entry has the same handler instance
+     */
+    private static boolean isRegistered(@NotNull final List<? extends Entry<?>> entries, @NotNull final Object handler) {
+        for (Entry<?> entry : entries) {
+            if (entry.handler == handler) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Convert entries to an array.
+     * @param entries the entries
+     * @return the array
+     * @param <H> the type of handler
+     */
+    @SuppressWarnings("unchecked")
+    private static <H> @NotNull Entry<H>[] toArray(@NotNull final List<Entry<H>> entries) {
+        return (Entry<H>[]) entries.toArray(new Entry<?>[0]);
+    }
+
+    /**
+     * Publish new entries, and a new cache resolving from them.
+     * @param newEntries the entries
+     */
+    private void publish(@NotNull final Entry<H>[] newEntries) {
+        ClassValue<H> resolver = new ClassValue<>() {
+            @Override
+            protected H computeValue(@NotNull final Class<?> type) {
+                for (Entry<H> entry : newEntries) {
+                    if (supports.test(entry.handler, type)) {
+                        return entry.handler;
+                    }
+                }
+                return null;
+            }
+        };
+        entries = newEntries;
+        resolved = resolver;
+    }
+
+    /**
+     * A registered handler.
+     * @param handler the handler
+     * @param priority the priority
+     * @param sequence the registration order
+     * @param <H> the type of handler
+     */
+    private record Entry<H>(H handler, int priority, long sequence) { }
+}
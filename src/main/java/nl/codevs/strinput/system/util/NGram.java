@@ -20,7 +20,7 @@ package nl.codevs.strinput.system.util;
 import nl.codevs.strinput.system.virtual.StrVirtual;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
@@ -36,6 +36,16 @@ import java.util.stream.Collectors;
  */
 public final class NGram {
 
+    /**
+     * Multiplier spreading characters over the signature bits.
+     */
+    private static final int SIGNATURE_MIX = 0x9E3779B1;
+
+    /**
+     * Shift leaving the top 6 bits of a mixed value, a bit index in a long.
+     */
+    private static final int SIGNATURE_SHIFT = Integer.SIZE - 6;
+
     private NGram() {
         // Never used
     }
@@ -52,17 +62,26 @@ public final class NGram {
             @NotNull final String input,
             @NotNull final List<String> options
     ) {
-        int max = nGramMatch(input, input);
-        return options.stream().mapToDouble(
-                o -> (double) nGramMatch(input, o) / max
-        ).toArray();
+        Scorer scorer = new Scorer(input);
+        double[] results = new double[options.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = scorer.match(Profile.of(options.get(i)));
+        }
+        return results;
     }
 
     /**
      * N-gram match two strings.<br>
      *
      * Standard N-gram matching is modified to award sources
-     * that form (a part of) the beginning of the target.
+     * that form (a part of) the beginning of the target.<br>
+     * For each length {@code n} up to the length of the source (ignoring case), the score is increased by:
+     * <ul>
+     *     <li>the length of the source, if the target starts with the first {@code n} characters of the source</li>
+     *     <li>{@code n}, if any {@code n}-gram of the source is in the target</li>
+     * </ul>
+     * Which is computed from the common prefix and the longest common substring
+     * (see {@link Scorer}).
      *
      * @see <a href="https://en.wikipedia.org/wiki/N-gram">N-Gram Wikipedia</a>
      * @param source string 1
@@ -73,34 +92,7 @@ public final class NGram {
             @NotNull final String source,
             @NotNull final String target
     ) {
-
-        String sourceLower = source.toLowerCase(Locale.ROOT);
-        String targetLower = target.toLowerCase(Locale.ROOT);
-
-        int nGramScore = 0;
-        for (int i = 1; i < sourceLower.length() + 1; i++) {
-
-            if (targetLower.startsWith(sourceLower.substring(0, i))) {
-                nGramScore += sourceLower.length();
-            }
-
-            List<String> set = new ArrayList<>();
-
-            for (int j = 0; j < sourceLower.length() - i + 1; j++) {
-                set.add(sourceLower.substring(j, j + i));
-            }
-
-            for (int j = 0; j < targetLower.length() - i + 1; j++) {
-                String sub = targetLower.substring(j, j + i);
-                if (set.contains(sub)) {
-                    nGramScore += i;
-                    set.remove(sub);
-                    break;
-                }
-            }
-        }
-
-        return nGramScore;
+        return new Scorer(source).score(Profile.of(target));
     }
 
     /**
@@ -163,4 +155,273 @@ public final class NGram {
                 .sorted(Comparator.comparingDouble(v -> -scores.get(v)))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Get the signature bit of a character.
+     * @param c the character
+     * @return a long with one bit set
+     */
+    private static long characterBit(final char c) {
+        return 1L << (c * SIGNATURE_MIX >>> SIGNATURE_SHIFT);
+    }
+
+    /**
+     * Get the signature bit of a bigram.
+     * @param first the first character
+     * @param second the second character
+     * @return a long with one bit set
+     */
+    private static long bigramBit(final char first, final char second) {
+        return 1L << ((first << Character.SIZE | second) * SIGNATURE_MIX >>> SIGNATURE_SHIFT);
+    }
+
+    /**
+     * A string prepared for n-gram matching: its lower case characters,
+     * and 64-bit signatures of its characters and bigrams.<br>
+     * Built once for names that are matched often (see {@link nl.codevs.strinput.system.virtual.StrVirtualIndex}).
+     */
+    public static final class Profile {
+
+        /**
+         * The lower case characters.
+         */
+        private final char[] chars;
+
+        /**
+         * Signature of the characters: a bit per (hashed) character.
+         */
+        private final long characters;
+
+        /**
+         * Signature of the bigrams: a bit per (hashed) pair of adjacent characters.
+         */
+        private final long bigrams;
+
+        /**
+         * Create a new profile.
+         * @param lowerCase the lower case characters
+         */
+        private Profile(final char[] lowerCase) {
+            this.chars = lowerCase;
+            long characterSignature = 0;
+            long bigramSignature = 0;
+            for (int i = 0; i < chars.length; i++) {
+                characterSignature |= characterBit(chars[i]);
+                if (i > 0) {
+                    bigramSignature |= bigramBit(chars[i - 1], chars[i]);
+                }
+            }
+            this.characters = characterSignature;
+            this.bigrams = bigramSignature;
+        }
+
+        /**
+         * Create the profile of a string.
+         * @param string the string
+         * @return the profile
+         */
+        public static @NotNull Profile of(@NotNull final String string) {
+            return new Profile(string.toLowerCase(Locale.ROOT).toCharArray());
+        }
+
+        /**
+         * Get the length of the profiled string.
+         * @return the amount of lower case characters
+         */
+        public int length() {
+            return chars.length;
+        }
+
+        /**
+         * Get the lower case characters.
+         * @return the characters. <em>Do not modify.</em>
+         */
+        char[] chars() {
+            return chars;
+        }
+    }
+
+    /**
+     * Scores profiles against one input (see {@link #nGramMatch(String, String)}).<br>
+     * The n-gram score of a source {@code s} and a target {@code t} is
+     * {@code |s| * P + L * (L + 1) / 2}, where {@code P} is the length of their common prefix,
+     * and {@code L} the length of their longest common substring:
+     * the target starts with the first {@code n} characters of the source for {@code n <= P},
+     * and shares an {@code n}-gram with it for {@code n <= L}.<br>
+     * {@code L} is computed with one row of dynamic programming, in {@code O(|s| * |t|)} time,
+     * and the row is reused, so scoring does not allocate.<br>
+     * Before scoring, {@link #mayMatch(Profile, double)} rules out most targets from their
+     * signatures: the threshold sets a minimal {@code L}, and a target with a common substring of
+     * that length has at least its character or bigram bits in common with the input.
+     * Not thread safe: use one scorer per thread.
+     */
+    public static final class Scorer {
+
+        /**
+         * The lower case input.
+         */
+        private final char[] input;
+
+        /**
+         * The score of the input with itself.
+         */
+        private final int max;
+
+        /**
+         * The dynamic programming row, grown when needed.
+         */
+        private int[] row = new int[0];
+
+        /**
+         * Signature of the characters of the input.
+         */
+        private final long characters;
+
+        /**
+         * Signature of the bigrams of the input.
+         */
+        private final long bigrams;
+
+        /**
+         * The threshold {@link #requiredCommon} and {@link #requiredOverlap} are for.
+         */
+        private double filterThreshold = Double.NaN;
+
+        /**
+         * The minimal longest common substring for the threshold.
+         */
+        private int requiredCommon;
+
+        /**
+         * The minimal amount of bigram bits in common for the threshold.
+         */
+        private int requiredOverlap;
+
+        /**
+         * Create a new scorer.
+         * @param source the input to score profiles against
+         */
+        public Scorer(@NotNull final String source) {
+            this.input = source.toLowerCase(Locale.ROOT).toCharArray();
+            this.max = input.length * input.length + input.length * (input.length + 1) / 2;
+            Profile profile = new Profile(input);
+            this.characters = profile.characters;
+            this.bigrams = profile.bigrams;
+        }
+
+        /**
+         * Get the shortest common substring a target must have with the input to reach a threshold.<br>
+         * The common prefix is never longer than the longest common substring {@code L},
+         * so a score is at most {@code |s| * L + L * (L + 1) / 2}.
+         * @param threshold the minimal match degree
+         * @return the minimal length, or the length of the input plus one if no target can reach the threshold
+         */
+        public int minCommonLength(final double threshold) {
+            for (int common = 0; common <= input.length; common++) {
+                int bound = input.length * common + common * (common + 1) / 2;
+                if ((double) bound / max >= threshold) {
+                    return common;
+                }
+            }
+            return input.length + 1;
+        }
+
+        /**
+         * Get whether a target may reach a match degree with the input, from their signatures.<br>
+         * Never false for a target that reaches it, but may be true for one that does not.
+         * @param target the target profile
+         * @param threshold the minimal match degree
+         * @return false if the target can not reach the threshold
+         */
+        public boolean mayMatch(@NotNull final Profile target, final double threshold) {
+            if (threshold != filterThreshold) {
+                prepareFilter(threshold);
+            }
+            if (requiredCommon == 0) {
+                return true;
+            }
+            if (requiredCommon > input.length) {
+                return false;
+            }
+            if (requiredCommon == 1) {
+                return (target.characters & characters) != 0;
+            }
+            return Long.bitCount(target.bigrams & bigrams) >= requiredOverlap;
+        }
+
+        /**
+         * Compute the signature requirements for a threshold.<br>
+         * A target with a common substring of the minimal length contains a window of that
+         * length of the input, so it has all bigram bits of that window.
+         * The fewest bits of any window is the required overlap.
+         * @param threshold the minimal match degree
+         */
+        private void prepareFilter(final double threshold) {
+            filterThreshold = threshold;
+            requiredCommon = minCommonLength(threshold);
+            requiredOverlap = Long.SIZE;
+            if (requiredCommon < 2 || requiredCommon > input.length) {
+                return;
+            }
+            for (int start = 0; start + requiredCommon <= input.length; start++) {
+                long window = 0;
+                for (int i = start + 1; i < start + requiredCommon; i++) {
+                    window |= bigramBit(input[i - 1], input[i]);
+                }
+                requiredOverlap = Math.min(requiredOverlap, Long.bitCount(window));
+            }
+        }
+
+        /**
+         * Get the lower case input.
+         * @return the characters of the input. <em>Do not modify.</em>
+         */
+        char[] input() {
+            return input;
+        }
+
+        /**
+         * Get the n-gram score of the input and a target.
+         * @param target the target profile
+         * @return the score, equal to {@link #nGramMatch(String, String)}
+         */
+        public int score(@NotNull final Profile target) {
+            char[] t = target.chars;
+
+            int prefix = 0;
+            int shortest = Math.min(input.length, t.length);
+            while (prefix < shortest && input[prefix] == t[prefix]) {
+                prefix++;
+            }
+
+            if (row.length < t.length + 1) {
+                row = new int[t.length + 1];
+            }
+            Arrays.fill(row, 0, t.length + 1, 0);
+            int longest = 0;
+            for (char c : input) {
+                for (int j = t.length; j > 0; j--) {
+                    if (c == t[j - 1]) {
+                        row[j] = row[j - 1] + 1;
+                        if (row[j] > longest) {
+                            longest = row[j];
+                        }
+                    } else {
+                        row[j] = 0;
+                    }
+                }
+            }
+
+            return input.length * prefix + longest * (longest + 1) / 2;
+        }
+
+        /**
+         * Get the match degree of the input and a target.
+         * @param target the target profile
+         * @return the score divided by the score of the input with itself
+         */
+        public double match(@NotNull final Profile target) {
+            return (double) score(target) / max;
+        }
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * An inverted index of the q-grams (of up to {@link #GRAM} characters) in a set of names,
+ * to find the names that can reach an n-gram match threshold without scoring all of them.<br>
+ * A name's {@link NGram#nGramMatch(String, String) score} with a source {@code s} is
+ * {@code |s| * P + L * (L + 1) / 2}, and its common prefix {@code P} is never longer than
+ * its longest common substring {@code L}, so the score is at most {@code |s| * L + L * (L + 1) / 2}.
+ * From the threshold follows a minimal {@code L}, and only names sharing a q-gram of that length
+ * (or {@link #GRAM}, if longer) with the input can reach it. Other names are never candidates,
+ * so the index never drops a name that would have matched.<br>
+ * Edit distance based indices (like BK-trees) are not used, as the n-gram score
+ * does not follow from an edit distance: a long name containing the input scores high at
+ * a large distance.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class NGramIndex {
+
+    /**
+     * The longest indexed q-gram.
+     */
+    public static final int GRAM = 3;
+
+    /**
+     * Bits per character in a packed q-gram.
+     */
+    private static final int CHAR_BITS = 16;
+
+    /**
+     * The amount of names.
+     */
+    private final int size;
+
+    /**
+     * Packed q-grams, sorted.
+     */
+    private final long[] grams;
+
+    /**
+     * The names containing each q-gram in {@link #grams}, as indices.
+     */
+    private final int[][] postings;
+
+    /**
+     * Index names.
+     * @param names the profiles of the names
+     */
+    public NGramIndex(@NotNull final NGram.Profile[] names) {
+        this.size = names.length;
+        Map<Long, TreeSet<Integer>> byGram = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            char[] chars = names[i].chars();
+            for (int q = 1; q <= GRAM; q++) {
+                for (int start = 0; start + q <= chars.length; start++) {
+                    byGram.computeIfAbsent(pack(chars, start, q), g -> new TreeSet<>()).add(i);
+                }
+            }
+        }
+        this.grams = byGram.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        this.postings = new int[grams.length][];
+        for (int i = 0; i < grams.length; i++) {
+            postings[i] = byGram.get(grams[i]).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Mark the names that may have a match degree of at least a threshold with an input.
+     * @param scorer the scorer of the input
+     * @param threshold the minimal match degree
+     * @param candidates the marks, one per name, set to true for candidates
+     * @return false if every name is a candidate (and nothing was marked), else true
+     */
+    public boolean candidates(
+            @NotNull final NGram.Scorer scorer,
+            final double threshold,
+            @NotNull final boolean[] candidates
+    ) {
+        char[] input = scorer.input();
+        int common = scorer.minCommonLength(threshold);
+        if (common == 0) {
+            return false;
+        }
+        if (common > input.length) {
+            return true;
+        }
+        int q = Math.min(common, GRAM);
+        for (int start = 0; start + q <= input.length; start++) {
+            int i = Arrays.binarySearch(grams, pack(input, start, q));
+            if (i < 0) {
+                continue;
+            }
+            for (int name : postings[i]) {
+                candidates[name] = true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the amount of indexed names.
+     * @return the amount of names
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Pack a q-gram, with its length, into a long.
+     * @param chars the characters
+     * @param start the start of the q-gram
+     * @param q the length of the q-gram
+     * @return the packed q-gram
+     */
+    private static long pack(@NotNull final char[] chars, final int start, final int q) {
+        long packed = q;
+        for (int i = 0; i < q; i++) {
+            packed = packed << CHAR_BITS | chars[start + i];
+        }
+        return packed;
+    }
+}
@@ -5,8 +5,12 @@
  *     Allows one to cache the result of a function in a thread-safe manner</li>
  *     <li>{@link nl.codevs.strinput.system.util.NGram}
  *     Contains methods for intelligent fuzzy string matching</li>
+ *     <li>{@link nl.codevs.strinput.system.util.NGramIndex}
+ *     Finds the names that can reach an n-gram match threshold, without scoring all of them</li>
  *     <li>{@link nl.codevs.strinput.system.util.ContextContainer}
  *     A Contextual container which allows one to pull information based on the current thread</li>
+ *     <li>{@link nl.codevs.strinput.system.util.HandlerRegistry}
+ *     Handlers by priority, with lock-free cached resolution per type</li>
  *     <li>{@link nl.codevs.strinput.system.util.C} Colors enum</li>
  * </ul>
  */
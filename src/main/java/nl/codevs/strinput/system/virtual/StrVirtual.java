@@ -104,6 +104,20 @@ public interface StrVirtual {
                 : getParent().getPath() + " " + getName();
     }
 
+    /**
+     * Get the settings overridden by the annotations on this virtual and its parents.
+     * @return the overrides
+     */
+    @NotNull StrVirtualOverrides getOverrides();
+
+    /**
+     * Get the priority of this virtual, inherited from its parents if not set.
+     * @return the priority
+     */
+    default int getPriority() {
+        return getOverrides().getPriority();
+    }
+
     /**
      * Get names (including aliases).
      * @return the category names
@@ -180,7 +194,7 @@ public interface StrVirtual {
      * @param message the message to send
      */
     default void debug(@NotNull String message) {
-        if (Context.settings().isDebugMatching()) {
+        if (Context.snapshot().isDebugMatching()) {
             center().debug(C.BLUE + getPath() + C.GREEN + ": " + message);
         }
     }
@@ -190,7 +204,7 @@ public interface StrVirtual {
      * @param message the message to send
      */
     default void warning(@NotNull String message) {
-        if (Context.settings().isDebugMatching()) {
+        if (Context.snapshot().isDebugMatching()) {
             center().warn(C.BLUE + getPath() + C.YELLOW + ": " + message);
         }
     }
@@ -200,7 +214,7 @@ public interface StrVirtual {
      * @param message the message to send
      */
     default void error(@NotNull String message) {
-        if (Context.settings().isDebugMatching()) {
+        if (Context.snapshot().isDebugMatching()) {
             center().error(C.BLUE + getPath() + C.RED + ": " + message);
         }
     }
@@ -23,7 +23,9 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import nl.codevs.strinput.system.StrInput;
 import nl.codevs.strinput.system.StrCategory;
 import nl.codevs.strinput.system.Context;
+import nl.codevs.strinput.system.StrSettings;
 import nl.codevs.strinput.system.StrUser;
+import nl.codevs.strinput.system.execution.CommandResult;
 import nl.codevs.strinput.system.util.C;
 import nl.codevs.strinput.system.util.NGram;
 import org.jetbrains.annotations.Contract;
@@ -66,6 +68,14 @@ public final class StrVirtualCategory implements StrVirtual {
      * Instance of this category.
      */
     private final StrCategory instance;
+    /**
+     * Settings overridden by this category and its parents.
+     */
+    private final StrVirtualOverrides overrides;
+    /**
+     * Compiled options, swapped by {@link #recompile()}.
+     */
+    private volatile StrVirtualIndex index;
 
     /**
      * Get commands.
@@ -108,8 +118,29 @@ public final class StrVirtualCategory implements StrVirtual {
         this.parent = previous;
         this.annotation = object.getClass().getAnnotation(StrInput.class);
         this.instance = object;
+        this.overrides = StrVirtualOverrides.fold(previous == null ? null : previous.overrides, annotation);
         this.commands = setupCommands();
         this.subCats = setupSubCats();
+        this.index = new StrVirtualIndex(subCats, commands);
+    }
+
+    /**
+     * Get the compiled options of this category.
+     * @return the index of the subcategories and commands
+     */
+    public @NotNull StrVirtualIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Compile the options of this category and its subcategories again,
+     * and swap in the new indices. Dispatch running meanwhile uses the old ones.
+     */
+    public void recompile() {
+        for (StrVirtualCategory subCat : subCats) {
+            subCat.recompile();
+        }
+        index = new StrVirtualIndex(subCats, commands);
     }
 
     /**
@@ -133,6 +164,16 @@ public final class StrVirtualCategory implements StrVirtual {
         return annotation;
     }
 
+    /**
+     * Get the settings overridden by the annotations on this virtual and its parents.
+     *
+     * @return the overrides
+     */
+    @Override
+    public @NotNull StrVirtualOverrides getOverrides() {
+        return overrides;
+    }
+
     /**
      * Get the class instance this virtual category manages.
      * @return the class instance of this virtual
@@ -142,7 +183,14 @@ public final class StrVirtualCategory implements StrVirtual {
     }
 
     /**
-     * Run the virtual.
+     * Run the virtual.<br>
+     * The next argument is resolved in stages, and each stage only runs
+     * if the options of the stages before it did not run successfully:
+     * <ol>
+     *     <li>options with a name or alias equal to it, ignoring case</li>
+     *     <li>the only option with a name or alias starting with it</li>
+     *     <li>options ranked by n-gram matching</li>
+     * </ol>
      *
      * @param arguments the remaining arguments
      * @return true if this virtual ran successfully
@@ -151,42 +199,67 @@ public final class StrVirtualCategory implements StrVirtual {
     public boolean run(@NotNull final List<String> arguments) {
         if (arguments.size() == 0) {
             debug(C.GREEN + "Sending help to user");
+            CommandResult.Recorder recorder = Context.recorder();
+            if (recorder != null) {
+                recorder.resolve(getPath());
+            }
             help(user());
             return true;
         }
-        List<StrVirtual> options = new ArrayList<>();
-        options.addAll(subCats);
-        options.addAll(commands);
-        int n = options.size();
-        options = options.stream().filter(
-                o -> o.doesMatchUser(user())
-        ).collect(Collectors.toList());
-        if (n - options.size() != 0) {
-            debug(C.GREEN + "Virtual" + C.BLUE + getName() + C.GREEN + " filtered out "
-                    + C.BLUE + (n - options.size()) + C.GREEN + " options!");
+        StrVirtualIndex compiled = index;
+        StrSettings.Snapshot settings = Context.snapshot();
+        String next = arguments.remove(0);
+        StrUser user = user();
+
+        // 1. Exact names and aliases
+        List<StrVirtual> tried = compiled.exact(next, user);
+        for (StrVirtual option : tried) {
+            if (settings.isDebugMatching()) {
+                debug(C.GREEN + "Exact match: " + C.BLUE + option.getName());
+            }
+            if (attempt(option, arguments, next)) {
+                return true;
+            }
         }
 
-        String next = arguments.remove(0);
+        // 2. The only option starting with the input
+        StrVirtual prefixed = compiled.uniquePrefix(next, user);
+        if (prefixed != null && !tried.contains(prefixed)) {
+            if (settings.isDebugMatching()) {
+                debug(C.GREEN + "Prefix match: " + C.BLUE + prefixed.getName());
+            }
+            if (attempt(prefixed, arguments, next)) {
+                return true;
+            }
+            tried = new ArrayList<>(tried);
+            tried.add(prefixed);
+        }
 
-        List<StrVirtual> opt = NGram.sortByNGram(
+        // 3. N-gram matching
+        List<StrVirtual> opt = compiled.rank(
                 next,
-                options,
-                Context.settings().getMatchThreshold()
+                overrides.getMatchThreshold(settings),
+                user
         );
+        opt.removeAll(tried);
 
-        debug(C.GREEN + "Options: " + C.BLUE + opt
-                        .stream()
-                        .map(o -> String.join("/", o.getNames()))
-                        .collect(Collectors.joining(C.GREEN + ", " + C.BLUE)));
-
-        debug(C.GREEN + "Attempting to find a match in " + options.size() + " options with input: " + next);
+        if (settings.isDebugMatching()) {
+            int hidden = compiled.countHidden(user);
+            if (hidden != 0) {
+                debug(C.GREEN + "Virtual" + C.BLUE + getName() + C.GREEN + " filtered out "
+                        + C.BLUE + hidden + C.GREEN + " options!");
+            }
+            debug(C.GREEN + "Options: " + C.BLUE + opt
+                            .stream()
+                            .map(o -> String.join("/", o.getNames()))
+                            .collect(Collectors.joining(C.GREEN + ", " + C.BLUE)));
+            debug(C.GREEN + "Attempting to find a match in " + (compiled.size() - hidden)
+                    + " options with input: " + next);
+        }
 
         for (StrVirtual option : opt) {
-            if (option.run(new ArrayList<>(arguments))) {
+            if (attempt(option, arguments, next)) {
                 return true;
-            } else {
-                error(C.RED + "Virtual " + C.BLUE + option.getName() + C.RED + " matched with "
-                        + C.BLUE + next + C.RED + " but failed to run!");
             }
         }
         error(C.RED + "Virtual " + C.BLUE + getName() + C.RED + " failed to find a matching option for " +
@@ -196,6 +269,47 @@ public final class StrVirtualCategory implements StrVirtual {
         return false;
     }
 
+    /**
+     * Attempt to run an option with the remaining arguments.
+     * @param option the option
+     * @param arguments the remaining arguments, which are not modified
+     * @param next the input that matched the option
+     * @return true if the option ran successfully
+     */
+    private boolean attempt(
+            @NotNull final StrVirtual option,
+            @NotNull final List<String> arguments,
+            @NotNull final String next
+    ) {
+        if (option.run(new ArrayList<>(arguments))) {
+            return true;
+        }
+        error(C.RED + "Virtual " + C.BLUE + option.getName() + C.RED + " matched with "
+                + C.BLUE + next + C.RED + " but failed to run!");
+        return false;
+    }
+
+    /**
+     * Find the deepest virtual that arguments resolve to,
+     * using exact (case-insensitive) names and aliases only. Does not run anything.
+     * @param arguments the remaining arguments
+     * @return the exactly named command, else the deepest exactly named category
+     * (this category if the first argument does not exactly name an option)
+     */
+    public @NotNull StrVirtual findExact(@NotNull final List<String> arguments) {
+        if (arguments.isEmpty()) {
+            return this;
+        }
+        StrVirtual[] matches = index.exact(arguments.get(0));
+        if (matches.length == 0) {
+            return this;
+        }
+        if (matches[0] instanceof StrVirtualCategory subCat) {
+            return subCat.findExact(arguments.subList(1, arguments.size()));
+        }
+        return matches[0];
+    }
+
     /**
      * Send help for this virtual to a user.
      *
@@ -23,6 +23,9 @@ import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import nl.codevs.strinput.system.*;
 import nl.codevs.strinput.system.context.StrContextHandler;
+import nl.codevs.strinput.system.execution.CommandResult;
+import nl.codevs.strinput.system.execution.StrInvocations;
+import nl.codevs.strinput.system.parameter.CollectionHandler;
 import nl.codevs.strinput.system.parameter.StrParameterHandler;
 import nl.codevs.strinput.system.util.C;
 import nl.codevs.strinput.system.util.NGram;
@@ -34,7 +37,12 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -71,6 +79,10 @@ public final class StrVirtualCommand implements StrVirtual {
      * Command annotation.
      */
     private final StrInput annotation;
+    /**
+     * Settings overridden by this command and its parents.
+     */
+    private final StrVirtualOverrides overrides;
 
     /**
      * Create a new virtual command.<br>
@@ -84,9 +96,20 @@ public final class StrVirtualCommand implements StrVirtual {
         this.parent = previous;
         this.method = command;
         this.annotation = method.getAnnotation(StrInput.class);
+        this.overrides = StrVirtualOverrides.fold(previous == null ? null : previous.getOverrides(), annotation);
         this.parameters = setupParameters();
     }
 
+    /**
+     * Get the settings overridden by the annotations on this virtual and its parents.
+     *
+     * @return the overrides
+     */
+    @Override
+    public @NotNull StrVirtualOverrides getOverrides() {
+        return overrides;
+    }
+
     /**
      * Calculate the parameters in this method.<br>
      * Sorted by required & contextuality.
@@ -149,20 +172,37 @@ public final class StrVirtualCommand implements StrVirtual {
     @Override
     public boolean run(@NotNull final List<String> arguments) {
 
+        CommandResult.Recorder recorder = Context.recorder();
+        if (recorder != null) {
+            recorder.resolve(getPath());
+        }
+
+        // Charge what is left of the cost of this command, if it was not entered by its exact name.
+        // This command was found, so no other option is tried; the recorder holds the failure
+        if (recorder != null && annotation.cost() > recorder.getCharged()
+                && !center().admit(user(), annotation.cost() - recorder.getCharged(), recorder)) {
+            return true;
+        }
+
         if (arguments.size() != 0) {
             debug(C.GREEN + "Entered arguments: " + C.BLUE + String.join(C.GREEN + ", " + C.BLUE, arguments));
         }
 
+        StrSettings.Snapshot settings = Context.snapshot();
         ConcurrentHashMap<StrVirtualParameter, Object> params
-                = computeParameters(arguments);
+                = computeParameters(settings, arguments);
 
         if (params == null) {
             error(C.RED + "Parameter parsing failed for " + C.BLUE + getName());
             help(user());
+            if (recorder != null) {
+                recorder.fail("Parameter parsing failed for " + getPath());
+            }
             return true;
         }
 
         Object[] finalParams = new Object[getParameters().size()];
+        Map<String, Object> boundArguments = new LinkedHashMap<>();
 
         // Final checksum.
         // Everything should already be valid,
@@ -187,6 +227,10 @@ public final class StrVirtualCommand implements StrVirtual {
 
             Object value = params.get(parameter);
             finalParams[x++] = value.equals(NULL_PARAM) ? null : value;
+            boundArguments.put(parameter.getName(), finalParams[x - 1]);
+        }
+        if (recorder != null) {
+            recorder.bind(boundArguments);
         }
         if (!getParameters().isEmpty()) {
             debug("Elements that will be parsed (" + C.BLUE + finalParams.length + C.GREEN + " of "
@@ -198,15 +242,20 @@ public final class StrVirtualCommand implements StrVirtual {
         StrUser user = user();
         StrCenter center = center();
         Runnable rx = () -> {
+            StrInvocations.Invocation invocation = startInvocation(user, center, settings);
             try {
                 try {
                     Context.touch(user);
                     Context.touch(center);
+                    Context.touch(settings);
                     method.setAccessible(true);
                     method.invoke(getParent().getInstance(), finalParams);
+                    if (recorder != null) {
+                        recorder.succeed();
+                    }
                 } catch (InvocationTargetException e) {
-                    if (e.getCause().getMessage()
-                            .endsWith("may only be triggered synchronously.")) {
+                    String message = e.getCause().getMessage();
+                    if (message != null && message.endsWith("may only be triggered synchronously.")) {
                         warning("Command sent asynchronously while it must be ran sync.");
                         warning(" Set " + C.BLUE + "'sync = true'" + C.YELLOW +
                                 " in the annotation of the command or category!");
@@ -214,18 +263,38 @@ public final class StrVirtualCommand implements StrVirtual {
                         user().sendMessage(C.RED + "The command you tried to run (" + C.BLUE + getPath()
                                 + C.RED + ") may only be run sync!");
                         user().sendMessage(C.RED + "This is a configuration error in the command system, please contact your admin.");
+                        if (recorder != null) {
+                            recorder.fail("Command may only be run sync");
+                        }
                     } else {
                         throw e;
                     }
                 }
             } catch (Throwable e) {
-                center().printException(e);
-                user().sendMessage(C.RED + "Uncaught Exception thrown while executing, contact your admin!");
+                if (invocation != null && invocation.isCancelled()) {
+                    user().sendMessage(C.RED + "The command " + C.BLUE + getPath() + C.RED + " " + invocation.getReason());
+                    if (recorder != null) {
+                        recorder.fail("Command " + invocation.getReason());
+                    }
+                } else {
+                    center().printException(e);
+                    user().sendMessage(C.RED + "Uncaught Exception thrown while executing, contact your admin!");
+                    if (recorder != null) {
+                        recorder.fail("Uncaught exception: " + (e instanceof InvocationTargetException ? e.getCause() : e));
+                    }
+                }
+            } finally {
+                if (invocation != null) {
+                    invocation.finish();
+                }
             }
         };
 
-        if (annotation.sync()) {
-            center().runSync(rx);
+        if (overrides.isSync()) {
+            if (recorder != null) {
+                recorder.defer();
+            }
+            center().runDeferred(rx);
         } else {
             rx.run();
         }
@@ -233,6 +302,27 @@ public final class StrVirtualCommand implements StrVirtual {
         return true;
     }
 
+    /**
+     * Start a cancellable invocation of this command on the current thread.<br>
+     * Only async commands on a center with {@link StrSettings#isAsync()} can be cancelled,
+     * other commands run on threads that are not ours to interrupt.
+     * @param user the user running the command
+     * @param center the center running the command
+     * @param settings the settings of the command
+     * @return the invocation, or {@code null} if this command cannot be cancelled
+     */
+    private @Nullable StrInvocations.Invocation startInvocation(
+            @Nullable final StrUser user,
+            @Nullable final StrCenter center,
+            @NotNull final StrSettings.Snapshot settings
+    ) {
+        if (overrides.isSync() || user == null || center == null || !settings.isAsync()) {
+            return null;
+        }
+        int timeout = annotation.timeout() < 0 ? settings.getCommandTimeout() : annotation.timeout();
+        return center.getInvocations().start(user.getName(), getPath(), timeout);
+    }
+
     /**
      * Send help for this virtual to a user.
      *
@@ -254,12 +344,16 @@ public final class StrVirtualCommand implements StrVirtual {
 
     /**
      * Compute parameter objects from string argument inputs.
+     * @param settings the settings of the command
      * @param args The arguments (parameters) to parse into this command
      * @return A {@link ConcurrentHashMap}
      * from the parameter to the instantiated object for that parameter
      */
     private @Nullable ConcurrentHashMap<StrVirtualParameter, Object>
-    computeParameters(@NotNull final List<String> args) {
+    computeParameters(
+            @NotNull final StrSettings.Snapshot settings,
+            @NotNull final List<String> args
+    ) {
 
         /*
          * Note that despite the great amount of loops,
@@ -287,6 +381,7 @@ public final class StrVirtualCommand implements StrVirtual {
         List<String> badArgs = new ArrayList<>();
 
         fillLists(
+                settings,
                 args,
                 dashArgs,
                 keyedArgs,
@@ -295,7 +390,13 @@ public final class StrVirtualCommand implements StrVirtual {
                 badArgs
         );
 
+        mergeRepeatedKeys(
+                keyedArgs,
+                options
+        );
+
         parseKeyedArgs(
+                settings,
                 keyedArgs,
                 options,
                 params,
@@ -316,6 +417,7 @@ public final class StrVirtualCommand implements StrVirtual {
         );
 
         parseKeylessArgs(
+                settings,
                 keylessArgs,
                 params,
                 options,
@@ -324,6 +426,7 @@ public final class StrVirtualCommand implements StrVirtual {
         );
 
         parseRemaining(
+                settings,
                 options,
                 params,
                 parseExceptionArgs,
@@ -331,6 +434,7 @@ public final class StrVirtualCommand implements StrVirtual {
         );
 
         debug(
+                settings,
                 params,
                 options,
                 keyedArgs,
@@ -360,6 +464,7 @@ public final class StrVirtualCommand implements StrVirtual {
      *     <li>{@code null -> nullArgs} -
      *     only if {@link StrSettings#isAllowNullInput()}</li>
      * </ul>
+     * @param settings the settings of the command
      * @param args the initial arguments
      * @param dashArgs arguments prefixed with '-'
      * @param keyedArgs arguments of format 'key=value'
@@ -368,6 +473,7 @@ public final class StrVirtualCommand implements StrVirtual {
      * @param badArgs other arguments
      */
     private void fillLists(
+            @NotNull final StrSettings.Snapshot settings,
             @NotNull final List<String> args,
             @NotNull final List<String> dashArgs,
             @NotNull final List<String> keyedArgs,
@@ -412,7 +518,7 @@ public final class StrVirtualCommand implements StrVirtual {
                 continue;
             }
 
-            if (Context.settings().isAllowNullInput()
+            if (overrides.isAllowNullInput(settings)
                     && splitArg.get(1).equalsIgnoreCase("null")) {
                 debug(C.GREEN + "Null parameter added: " + C.BLUE + arg);
                 nullArgs.add(splitArg.get(0));
@@ -439,8 +545,66 @@ public final class StrVirtualCommand implements StrVirtual {
         }
     }
 
+    /**
+     * Merge keyed arguments for the same {@link StrVirtualParameter#isCollection() collection} parameter
+     * into one argument, with the values separated by {@link CollectionHandler#SEPARATOR}.<br>
+     * {@code ids=1 ids=2} becomes {@code ids=1,2}.
+     * Only keys that name a collection parameter (ignoring case) are merged.
+     * @param keyedArgs arguments of format 'key=value'
+     * @param options parameter options
+     */
+    private void mergeRepeatedKeys(
+            @NotNull final List<String> keyedArgs,
+            @NotNull final List<StrVirtualParameter> options
+    ) {
+        Map<String, Integer> merged = new HashMap<>();
+        List<String> result = new ArrayList<>(keyedArgs.size());
+        for (String arg : keyedArgs) {
+            int split = arg.indexOf('=');
+            String key = arg.substring(0, split).toLowerCase(Locale.ROOT);
+            if (!namesCollection(options, key)) {
+                result.add(arg);
+                continue;
+            }
+            Integer index = merged.get(key);
+            if (index == null) {
+                merged.put(key, result.size());
+                result.add(arg);
+            } else {
+                result.set(index, result.get(index) + CollectionHandler.SEPARATOR + arg.substring(split + 1));
+                debug(C.GREEN + "Merged repeated parameter " + C.BLUE + arg);
+            }
+        }
+        keyedArgs.clear();
+        keyedArgs.addAll(result);
+    }
+
+    /**
+     * Get whether a key names a collection parameter.
+     * @param options parameter options
+     * @param key the lowercase key
+     * @return true if a collection parameter has the key as name or alias (ignoring case)
+     */
+    private static boolean namesCollection(
+            @NotNull final List<StrVirtualParameter> options,
+            @NotNull final String key
+    ) {
+        for (StrVirtualParameter option : options) {
+            if (!option.isCollection()) {
+                continue;
+            }
+            for (String name : option.getNames()) {
+                if (name.equalsIgnoreCase(key)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Send debug messages for parameters.
+     * @param settings the settings of the command
      * @param params parameter mapping
      * @param options remaining options
      * @param keyedArgs remaining keyed arguments
@@ -452,6 +616,7 @@ public final class StrVirtualCommand implements StrVirtual {
      */
     @SuppressWarnings("UnnecessaryUnicodeEscape")
     private void debug(
+            @NotNull final StrSettings.Snapshot settings,
             @NotNull final ConcurrentHashMap<StrVirtualParameter, Object>
                     params,
             @NotNull final List<StrVirtualParameter> options,
@@ -466,7 +631,7 @@ public final class StrVirtualCommand implements StrVirtual {
             > parseExceptionArgs
     ) {
         // Prevent debug if not required
-        if (!Context.center().getSettings().isDebug()) {
+        if (!settings.isDebug()) {
             return;
         }
 
@@ -474,7 +639,7 @@ public final class StrVirtualCommand implements StrVirtual {
         nullArgs.replaceAll(s -> s + "=null");
 
         // Debug
-        if (Context.settings().isAllowNullInput()) {
+        if (overrides.isAllowNullInput(settings)) {
             debug((nullArgs.isEmpty() ? C.GREEN.toString() : C.RED.toString())
                     + "Unmatched null argument" + (nullArgs.size() == 1 ? "" : "s") + ": "
                     + C.BLUE + (!nullArgs.isEmpty() ? String.join(C.RED + ", " + C.BLUE, nullArgs): "NONE")
@@ -542,12 +707,14 @@ public final class StrVirtualCommand implements StrVirtual {
 
     /**
      * Parse remaining options by getting default & contextual values.
+     * @param settings the settings of the command
      * @param options remaining options
      * @param params parameter mapping
      * @param parseExceptionArgs parameters that ran into parse exceptions
      * @param badArgs bad arguments
      */
     private void parseRemaining(
+            @NotNull final StrSettings.Snapshot settings,
             @NotNull final List<StrVirtualParameter> options,
             @NotNull final ConcurrentHashMap<StrVirtualParameter, Object>
                     params,
@@ -570,12 +737,12 @@ public final class StrVirtualCommand implements StrVirtual {
                     center().printException(e);
                 } catch (StrParameterHandler.StrWhichException e) {
                     options.remove(option);
-                    if (Context.settings().isPickFirstOnMultiple()) {
+                    if (overrides.isPickFirstOnMultiple(settings)) {
                         debug(C.GREEN + "Adding the first option for parameter " + C.BLUE + option.getName());
                         params.put(option, e.getOptions().get(0));
                     } else {
                         debug(C.YELLOW + "Default value " + C.BLUE + option.getDefault() + C.YELLOW + " returned multiple options");
-                        Object result = pickValidOption(e.getOptions(), option);
+                        Object result = pickValidOption(settings, e.getOptions(), option);
                         if (result == null) {
                             badArgs.add(option.getDefault());
                         } else {
@@ -604,7 +771,7 @@ public final class StrVirtualCommand implements StrVirtual {
                     center().printException(e);
                     continue;
                 }
-                Object contextValue = handler.handle(user());
+                Object contextValue = center().getContextCache().get(handler, option.getType(), user());
                 if (contextValue == null) {
                     error(C.RED + "Parameter: " + C.BLUE + option.getName() + C.RED + " not fulfilled due to context"
                                     + " handler returning null.");
@@ -622,6 +789,7 @@ public final class StrVirtualCommand implements StrVirtual {
 
     /**
      * Parse keyless arguments.
+     * @param settings the settings of the command
      * @param keylessArgs the keyless arguments
      * @param params parameter mapping
      * @param options parameter options
@@ -629,6 +797,7 @@ public final class StrVirtualCommand implements StrVirtual {
      * @param badArgs bad arguments
      */
     private void parseKeylessArgs(
+            @NotNull final StrSettings.Snapshot settings,
             @NotNull final List<String> keylessArgs,
             @NotNull final ConcurrentHashMap<StrVirtualParameter, Object>
                     params,
@@ -644,7 +813,7 @@ public final class StrVirtualCommand implements StrVirtual {
 
             for (String keylessArg : new ArrayList<>(keylessArgs)) {
 
-                if (Context.settings().isAllowNullInput()
+                if (overrides.isAllowNullInput(settings)
                         && keylessArg.equalsIgnoreCase("null")) {
                     debug(C.GREEN + "Null parameter added: " + C.BLUE + keylessArg);
                     params.put(option, NULL_PARAM);
@@ -666,11 +835,11 @@ public final class StrVirtualCommand implements StrVirtual {
                     options.remove(option);
                     keylessArgs.remove(keylessArg);
 
-                    if (Context.settings().isPickFirstOnMultiple()
+                    if (overrides.isPickFirstOnMultiple(settings)
                             || user().replaceClickable()) {
                         params.put(option, e.getOptions().get(0));
                     } else {
-                        Object result = pickValidOption(e.getOptions(), option);
+                        Object result = pickValidOption(settings, e.getOptions(), option);
                         if (result == null) {
                             badArgs.add(keylessArg);
                         } else {
@@ -829,6 +998,7 @@ public final class StrVirtualCommand implements StrVirtual {
 
     /**
      * Parse keyed arguments
+     * @param settings the settings of the command
      * @param keyedArgs keyed arguments
      * @param options parameter options
      * @param params parameter mapping
@@ -837,6 +1007,7 @@ public final class StrVirtualCommand implements StrVirtual {
      */
     @SuppressWarnings("DuplicatedCode")
     private void parseKeyedArgs(
+            @NotNull final StrSettings.Snapshot settings,
             @NotNull final List<String> keyedArgs,
             @NotNull final List<StrVirtualParameter> options,
             @NotNull final ConcurrentHashMap<StrVirtualParameter, Object>
@@ -855,6 +1026,7 @@ public final class StrVirtualCommand implements StrVirtual {
             for (StrVirtualParameter option : options) {
                 if (option.getNames().contains(key)) {
                     if (parseParamInto(
+                            settings,
                             params,
                             badArgs,
                             parseExceptionArgs,
@@ -877,6 +1049,7 @@ public final class StrVirtualCommand implements StrVirtual {
                 for (String name : option.getNames()) {
                     if (name.equalsIgnoreCase(key)) {
                         if (parseParamInto(
+                                settings,
                                 params,
                                 badArgs,
                                 parseExceptionArgs,
@@ -900,6 +1073,7 @@ public final class StrVirtualCommand implements StrVirtual {
                 for (String name : option.getNames()) {
                     if (name.contains(key)) {
                         if (parseParamInto(
+                                settings,
                                 params,
                                 badArgs,
                                 parseExceptionArgs,
@@ -923,6 +1097,7 @@ public final class StrVirtualCommand implements StrVirtual {
                 for (String name : option.getNames()) {
                     if (key.contains(name)) {
                         if (parseParamInto(
+                                settings,
                                 params,
                                 badArgs,
                                 parseExceptionArgs,
@@ -941,17 +1116,19 @@ public final class StrVirtualCommand implements StrVirtual {
 
     /**
      * Instruct the user to pick a valid option.
+     * @param settings the settings of the command
      * @param validOptions The valid options that can be picked (as objects)
      * @param parameter The parameter to pick options for
      * @return The string value for the selected option
      */
     private @Nullable Object pickValidOption(
+            @NotNull final StrSettings.Snapshot settings,
             @NotNull final List<?> validOptions,
             @NotNull final StrVirtualParameter parameter
     ) {
         StrParameterHandler<?> handler = parameter.getHandler();
 
-        int tries = Context.settings().getPickingAmount();
+        int tries = settings.getPickingAmount();
         List<String> options = new ArrayList<>();
         validOptions.forEach(o -> options.add(handler.toStringForce(o)));
         String result = null;
@@ -960,7 +1137,7 @@ public final class StrVirtualCommand implements StrVirtual {
                         + " (" + parameter.getType().getSimpleName() + ")"
         );
         user().sendMessage(C.GREEN + "This query will expire in "
-                + C.BLUE + Context.settings().getPickingTimeout() + C.GREEN + " seconds."
+                + C.BLUE + settings.getPickingTimeout() + C.GREEN + " seconds."
         );
 
         while (tries-- > 0 && (result == null || !options.contains(result))) {
@@ -975,13 +1152,19 @@ public final class StrVirtualCommand implements StrVirtual {
 
             try {
                 result = options.get(
-                        future.get(
-                                Context.settings().getPickingTimeout(),
+                        center().getInvocations().await(
+                                future,
+                                settings.getPickingTimeout(),
                                 TimeUnit.SECONDS
                         )
                 );
-            } catch (InterruptedException
-                    | ExecutionException
+            } catch (CancellationException e) {
+                user().sendMessage(C.RED + "Picking was cancelled because the command system is shutting down.");
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException
                     | TimeoutException ignored
             ) {
 
@@ -1041,6 +1224,7 @@ public final class StrVirtualCommand implements StrVirtual {
 
     /**
      * Parses a parameter into a map after parsing.
+     * @param settings the settings of the command
      * @param params The parameter map to store the value into
      * @param parseExceptionArgs Parameters which ran into parseExceptions
      * @param badArgs bad arguments (with '==' for example)
@@ -1050,6 +1234,7 @@ public final class StrVirtualCommand implements StrVirtual {
      * Nothing is added on parsing failure.
      */
     private boolean parseParamInto(
+            @NotNull final StrSettings.Snapshot settings,
             @NotNull final ConcurrentHashMap<StrVirtualParameter, Object>
                     params,
             @NotNull final List<String> badArgs,
@@ -1067,13 +1252,13 @@ public final class StrVirtualCommand implements StrVirtual {
             );
             return true;
         } catch (StrParameterHandler.StrWhichException e) {
-            if (Context.settings().isPickFirstOnMultiple()
+            if (overrides.isPickFirstOnMultiple(settings)
                     || user().replaceClickable()) {
                 debug(C.GREEN + "Adding: " + C.BLUE + e.getOptions().get(0).toString());
                 params.put(option, e.getOptions().get(0));
             } else {
                 debug("Value " + C.BLUE + value + C.YELLOW + " returned multiple options. Option picking...");
-                Object result = pickValidOption(e.getOptions(), option);
+                Object result = pickValidOption(settings, e.getOptions(), option);
                 if (result == null) {
                     badArgs.add(option.getDefault());
                 } else {
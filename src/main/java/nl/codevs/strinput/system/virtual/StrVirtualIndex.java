@@ -0,0 +1,392 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.virtual;
+
+import nl.codevs.strinput.system.StrInput;
+import nl.codevs.strinput.system.StrUser;
+import nl.codevs.strinput.system.util.NGram;
+import nl.codevs.strinput.system.util.NGramIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The compiled options of a {@link StrVirtualCategory}: its subcategories and commands.<br>
+ * Built once from the category, and never modified, so dispatch does not
+ * rebuild names, paths or option lists for every command.
+ * <ul>
+ *     <li>names and aliases are case-folded and interned</li>
+ *     <li>exact names are looked up in a hash map</li>
+ *     <li>names starting with some input are found by binary search in the sorted names</li>
+ *     <li>names are {@link NGram.Profile profiled} for n-gram matching, and in wide categories,
+ *     only names that can reach the threshold are scored (see {@link NGramIndex}).
+ *     Names are also ruled out by their signatures before scoring
+ *     (see {@link NGram.Scorer#mayMatch(NGram.Profile, double)})</li>
+ *     <li>permission nodes are built ahead, and options without a permission are not checked</li>
+ * </ul>
+ * A category swaps in a new index with {@link StrVirtualCategory#recompile()}.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class StrVirtualIndex {
+
+    /**
+     * The amount of names from which an {@link NGramIndex} is built,
+     * below which scoring all names is cheaper.
+     */
+    public static final int FUZZY_INDEX_MIN_NAMES = 32;
+
+    /**
+     * An empty array of options.
+     */
+    private static final StrVirtual[] NO_OPTIONS = new StrVirtual[0];
+
+    /**
+     * The options: subcategories first, then commands.
+     */
+    private final StrVirtual[] options;
+
+    /**
+     * The permission node of each option, or {@code null} if it has no permission.
+     */
+    private final String[] permissions;
+
+    /**
+     * The length of the name of each option.
+     */
+    private final int[] nameLengths;
+
+    /**
+     * Case-folded names and aliases of all options.
+     */
+    private final String[] names;
+
+    /**
+     * N-gram profiles of {@link #names}.
+     */
+    private final NGram.Profile[] profiles;
+
+    /**
+     * Candidate index of {@link #profiles}, or {@code null} if there are few names.
+     */
+    private final NGramIndex fuzzy;
+
+    /**
+     * The option of each name in {@link #names}, as an index in {@link #options}.
+     */
+    private final int[] owners;
+
+    /**
+     * Case-folded names and aliases of all options, sorted, for prefix lookups.
+     */
+    private final String[] sortedNames;
+
+    /**
+     * The option of each name in {@link #sortedNames}, as an index in {@link #options}.
+     */
+    private final int[] sortedOwners;
+
+    /**
+     * Options by case-folded name or alias, as indices in {@link #options}.
+     * Commands come before subcategories.
+     */
+    private final Map<String, int[]> exact;
+
+    /**
+     * Whether any option has a permission.
+     */
+    private final boolean restricted;
+
+    /**
+     * Compile the options of a category.
+     * @param subCats the subcategories
+     * @param commands the commands
+     */
+    StrVirtualIndex(
+            @NotNull final List<StrVirtualCategory> subCats,
+            @NotNull final List<StrVirtualCommand> commands
+    ) {
+        List<StrVirtual> all = new ArrayList<>(subCats.size() + commands.size());
+        all.addAll(subCats);
+        all.addAll(commands);
+        this.options = all.toArray(NO_OPTIONS);
+        this.permissions = new String[options.length];
+        this.nameLengths = new int[options.length];
+
+        List<String> allNames = new ArrayList<>();
+        List<Integer> allOwners = new ArrayList<>();
+        boolean anyPermission = false;
+        for (int i = 0; i < options.length; i++) {
+            StrVirtual option = options[i];
+            if (!Objects.equals(option.getAnnotation().permission(), StrInput.NO_PERMISSION)) {
+                permissions[i] = option.getPath() + "." + option.getAnnotation().permission();
+                anyPermission = true;
+            }
+            nameLengths[i] = option.getName().length();
+            for (String name : option.getNames()) {
+                allNames.add(fold(name).intern());
+                allOwners.add(i);
+            }
+        }
+        this.restricted = anyPermission;
+        this.names = allNames.toArray(new String[0]);
+        this.owners = allOwners.stream().mapToInt(Integer::intValue).toArray();
+        this.profiles = new NGram.Profile[names.length];
+        for (int i = 0; i < names.length; i++) {
+            profiles[i] = NGram.Profile.of(names[i]);
+        }
+        this.fuzzy = names.length < FUZZY_INDEX_MIN_NAMES ? null : new NGramIndex(profiles);
+
+        Integer[] order = new Integer[names.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> names[i]));
+        this.sortedNames = new String[names.length];
+        this.sortedOwners = new int[names.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedNames[i] = names[order[i]];
+            sortedOwners[i] = owners[order[i]];
+        }
+
+        Map<String, List<Integer>> byName = new HashMap<>();
+        for (int i = 0; i < options.length; i++) {
+            // Commands first
+            int option = (i + subCats.size()) % options.length;
+            for (String name : options[option].getNames()) {
+                List<Integer> positions = byName.computeIfAbsent(fold(name).intern(), n -> new ArrayList<>(1));
+                if (!positions.contains(option)) {
+                    positions.add(option);
+                }
+            }
+        }
+        Map<String, int[]> compiled = new HashMap<>();
+        byName.forEach((name, positions) -> compiled.put(
+                name,
+                positions.stream().mapToInt(Integer::intValue).toArray()
+        ));
+        this.exact = Map.copyOf(compiled);
+    }
+
+    /**
+     * Get the options with a name or alias equal to an input, ignoring case.<br>
+     * Does not check permissions.
+     * @param input the input
+     * @return the options (commands first), empty if there are none. <em>Do not modify.</em>
+     */
+    public @NotNull StrVirtual[] exact(@NotNull final String input) {
+        int[] matches = exact.get(fold(input));
+        if (matches == null) {
+            return NO_OPTIONS;
+        }
+        StrVirtual[] result = new StrVirtual[matches.length];
+        for (int i = 0; i < matches.length; i++) {
+            result[i] = options[matches[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Get the options a user may use with a name or alias equal to an input, ignoring case.
+     * @param input the input
+     * @param user the user
+     * @return the options (commands first), empty if there are none
+     */
+    public @NotNull List<StrVirtual> exact(@NotNull final String input, @NotNull final StrUser user) {
+        int[] matches = exact.get(fold(input));
+        if (matches == null) {
+            return List.of();
+        }
+        if (matches.length == 1) {
+            return isUsable(matches[0], user) ? List.of(options[matches[0]]) : List.of();
+        }
+        List<StrVirtual> result = new ArrayList<>(matches.length);
+        for (int match : matches) {
+            if (isUsable(match, user)) {
+                result.add(options[match]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the only option a user may use with a name or alias starting with an input, ignoring case.
+     * @param input the input
+     * @param user the user
+     * @return the option, or {@code null} if no or multiple options start with the input
+     */
+    public @Nullable StrVirtual uniquePrefix(@NotNull final String input, @NotNull final StrUser user) {
+        String prefix = fold(input);
+        if (prefix.isEmpty()) {
+            return null;
+        }
+        int found = -1;
+        for (int i = lowerBound(prefix); i < sortedNames.length && sortedNames[i].startsWith(prefix); i++) {
+            int owner = sortedOwners[i];
+            if (owner == found || !isUsable(owner, user)) {
+                continue;
+            }
+            if (found != -1) {
+                return null;
+            }
+            found = owner;
+        }
+        return found == -1 ? null : options[found];
+    }
+
+    /**
+     * Rank the options a user may use by n-gram match with an input
+     * (see {@link NGram#sortByNGram(String, List, double)}, which this is equal to).
+     * @param input the input
+     * @param threshold the minimal matching score
+     * @param user the user
+     * @return the options with a score of at least the threshold, best match first
+     */
+    public @NotNull List<StrVirtual> rank(
+            @NotNull final String input,
+            final double threshold,
+            @NotNull final StrUser user
+    ) {
+        NGram.Scorer scorer = new NGram.Scorer(input);
+        boolean[] candidates = null;
+        if (fuzzy != null) {
+            candidates = new boolean[names.length];
+            if (!fuzzy.candidates(scorer, threshold, candidates)) {
+                candidates = null;
+            }
+        }
+        double[] scores = new double[options.length];
+        for (int i = 0; i < names.length; i++) {
+            if ((candidates != null && !candidates[i]) || !scorer.mayMatch(profiles[i], threshold)) {
+                // Can not reach the threshold
+                continue;
+            }
+            int owner = owners[i];
+            scores[owner] = Math.max(scores[owner], scorer.match(profiles[i]));
+        }
+
+        // Insertion sort of the passing options, by score, then name length, then position
+        int[] ranked = new int[options.length];
+        int size = 0;
+        for (int i = 0; i < options.length; i++) {
+            if (scores[i] < threshold || !isUsable(i, user)) {
+                continue;
+            }
+            int j = size++;
+            while (j > 0 && ranksBefore(i, ranked[j - 1], scores)) {
+                ranked[j] = ranked[j - 1];
+                j--;
+            }
+            ranked[j] = i;
+        }
+
+        List<StrVirtual> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(options[ranked[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Get whether option {@code a} ranks before option {@code b},
+     * which is before {@code a} in {@link #options}.
+     * @param a the option to insert
+     * @param b the option it is compared to
+     * @param scores the scores of the options
+     * @return true if {@code a} has a higher score, or an equal score and a shorter name
+     */
+    private boolean ranksBefore(final int a, final int b, @NotNull final double[] scores) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b];
+        }
+        return nameLengths[a] < nameLengths[b];
+    }
+
+    /**
+     * Get whether a user may use an option.
+     * @param option the index of the option
+     * @param user the user
+     * @return true if the option has no permission, or the user has it
+     */
+    private boolean isUsable(final int option, @NotNull final StrUser user) {
+        return permissions[option] == null || user.hasPermission(permissions[option]);
+    }
+
+    /**
+     * Count the options a user may not use.
+     * @param user the user
+     * @return the amount of hidden options
+     */
+    public int countHidden(@NotNull final StrUser user) {
+        if (!restricted) {
+            return 0;
+        }
+        int hidden = 0;
+        for (int i = 0; i < options.length; i++) {
+            if (!isUsable(i, user)) {
+                hidden++;
+            }
+        }
+        return hidden;
+    }
+
+    /**
+     * Get the amount of options.
+     * @return the amount of subcategories and commands
+     */
+    public int size() {
+        return options.length;
+    }
+
+    /**
+     * Get the index of the first sorted name that is not smaller than some name.
+     * @param name the name
+     * @return the index, or the amount of names if all are smaller
+     */
+    private int lowerBound(@NotNull final String name) {
+        int low = 0;
+        int high = sortedNames.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedNames[mid].compareTo(name) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Fold the case of a name.
+     * @param name the name
+     * @return the lower case name
+     */
+    private static @NotNull String fold(@NotNull final String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
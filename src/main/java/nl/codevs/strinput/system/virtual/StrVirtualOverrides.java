@@ -0,0 +1,156 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.virtual;
+
+import nl.codevs.strinput.system.StrInput;
+import nl.codevs.strinput.system.StrSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Settings of a {@link StrVirtual} that are overridden by the {@link StrInput} annotations
+ * on it and its parent categories.<br>
+ * Folded from the parent when the tree is built, so reading one does not walk the parents.
+ * Settings that are not overridden anywhere fall back to the {@link StrSettings} of the command.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class StrVirtualOverrides {
+
+    /**
+     * The overrides above root categories: nothing is overridden.
+     */
+    private static final StrVirtualOverrides NONE = new StrVirtualOverrides(
+            StrInput.INHERIT_THRESHOLD,
+            StrInput.Setting.INHERIT,
+            StrInput.Setting.INHERIT,
+            false,
+            0
+    );
+
+    /**
+     * The match threshold, or {@link StrInput#INHERIT_THRESHOLD} to use the settings.
+     */
+    private final double matchThreshold;
+
+    /**
+     * Whether null input is allowed.
+     */
+    private final StrInput.Setting nullInput;
+
+    /**
+     * Whether the first of multiple options is picked.
+     */
+    private final StrInput.Setting pickFirst;
+
+    /**
+     * Whether commands must run sync.
+     */
+    private final boolean sync;
+
+    /**
+     * The priority of commands.
+     */
+    private final int priority;
+
+    /**
+     * Create new overrides.
+     * @param threshold the match threshold
+     * @param allowNullInput whether null input is allowed
+     * @param pickFirstOnMultiple whether the first of multiple options is picked
+     * @param runSync whether commands must run sync
+     * @param commandPriority the priority of commands
+     */
+    private StrVirtualOverrides(
+            final double threshold,
+            @NotNull final StrInput.Setting allowNullInput,
+            @NotNull final StrInput.Setting pickFirstOnMultiple,
+            final boolean runSync,
+            final int commandPriority
+    ) {
+        this.matchThreshold = threshold;
+        this.nullInput = allowNullInput;
+        this.pickFirst = pickFirstOnMultiple;
+        this.sync = runSync;
+        this.priority = commandPriority;
+    }
+
+    /**
+     * Fold the annotation of a virtual into the overrides of its parent.
+     * @param parent the overrides of the parent, or {@code null} for root categories
+     * @param annotation the annotation of the virtual
+     * @return the overrides of the virtual
+     */
+    static @NotNull StrVirtualOverrides fold(
+            @Nullable final StrVirtualOverrides parent,
+            @NotNull final StrInput annotation
+    ) {
+        StrVirtualOverrides base = parent == null ? NONE : parent;
+        return new StrVirtualOverrides(
+                annotation.matchThreshold() < 0 ? base.matchThreshold : annotation.matchThreshold(),
+                annotation.nullInput() == StrInput.Setting.INHERIT ? base.nullInput : annotation.nullInput(),
+                annotation.pickFirst() == StrInput.Setting.INHERIT ? base.pickFirst : annotation.pickFirst(),
+                base.sync || annotation.sync(),
+                annotation.priority() == StrInput.INHERIT_PRIORITY ? base.priority : annotation.priority()
+        );
+    }
+
+    /**
+     * Get the match threshold.
+     * @param settings the settings of the command
+     * @return the overridden match threshold, else that of the settings
+     */
+    public double getMatchThreshold(@NotNull final StrSettings.Snapshot settings) {
+        return matchThreshold < 0 ? settings.getMatchThreshold() : matchThreshold;
+    }
+
+    /**
+     * Get whether null input is allowed.
+     * @param settings the settings of the command
+     * @return the overridden setting, else that of the settings
+     */
+    public boolean isAllowNullInput(@NotNull final StrSettings.Snapshot settings) {
+        return nullInput == StrInput.Setting.INHERIT ? settings.isAllowNullInput() : nullInput == StrInput.Setting.ENABLED;
+    }
+
+    /**
+     * Get whether the first of multiple options is picked.
+     * @param settings the settings of the command
+     * @return the overridden setting, else that of the settings
+     */
+    public boolean isPickFirstOnMultiple(@NotNull final StrSettings.Snapshot settings) {
+        return pickFirst == StrInput.Setting.INHERIT ? settings.isPickFirstOnMultiple() : pickFirst == StrInput.Setting.ENABLED;
+    }
+
+    /**
+     * Get whether commands must run sync (because they, or a parent category, are {@link StrInput#sync()}).
+     * @return true if commands must run sync
+     */
+    public boolean isSync() {
+        return sync;
+    }
+
+    /**
+     * Get the priority of commands.
+     * @return the priority, {@code 0} if not set on the virtual or its parents
+     */
+    public int getPriority() {
+        return priority;
+    }
+}
@@ -24,6 +24,8 @@ import nl.codevs.strinput.system.StrCenter;
 import nl.codevs.strinput.system.StrUser;
 import nl.codevs.strinput.system.util.AtomicCache;
 import nl.codevs.strinput.system.Param;
+import nl.codevs.strinput.system.parameter.CollectionHandler;
+import nl.codevs.strinput.system.parameter.IndexedParameterHandler;
 import nl.codevs.strinput.system.parameter.StrParameterHandler;
 import nl.codevs.strinput.system.util.NGram;
 import org.jetbrains.annotations.Contract;
@@ -32,7 +34,10 @@ import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -56,10 +61,6 @@ public final class StrVirtualParameter {
      */
     private final AtomicCache<StrParameterHandler<?>> handlerCache
             = new AtomicCache<>();
-    /**
-     * Example cache.
-     */
-    private final AtomicCache<List<String>> exampleCache = new AtomicCache<>();
 
     /**
      * Create a virtual parameter.<br>
@@ -81,7 +82,19 @@ public final class StrVirtualParameter {
     public StrParameterHandler<?> getHandler() {
         return handlerCache.acquire(() -> {
             try {
-                // TODO: Implement lists to types (List.class.isAssignableFrom(parameter.getType()))
+                if (isCollection()) {
+                    CollectionHandler handler = CollectionHandler.of(parameter.getParameterizedType(), type -> {
+                        try {
+                            return StrCenter.ParameterHandling.getHandler(type);
+                        } catch (StrCenter.ParameterHandling.StrNoParameterHandlerException e) {
+                            return null;
+                        }
+                    });
+                    if (handler == null) {
+                        throw new StrCenter.ParameterHandling.StrNoParameterHandlerException(parameter.getType());
+                    }
+                    return handler;
+                }
                 return StrCenter.ParameterHandling
                         .getHandler(parameter.getType());
             } catch (StrCenter.ParameterHandling
@@ -93,16 +106,45 @@ public final class StrVirtualParameter {
     }
 
     /**
-     * Get a list of example values for this parameter.
+     * Get whether this parameter is a {@link List}, {@link Set}, array or {@link Optional},
+     * which takes multiple (or no) values (see {@link CollectionHandler}).
+     * @return true if this parameter is a collection
+     */
+    public boolean isCollection() {
+        Class<?> type = parameter.getType();
+        return type.isArray()
+                || type == List.class
+                || type == Collection.class
+                || type == Set.class
+                || type == Optional.class;
+    }
+
+    /**
+     * Get whether this parameter is an {@link Optional}, which is empty if not entered.
+     * @return true if this parameter is optional
+     */
+    public boolean isOptional() {
+        return parameter.getType() == Optional.class;
+    }
+
+    /**
+     * Get a list of example values for this parameter.<br>
+     * Not cached here, as the possibilities may change.
+     * {@link IndexedParameterHandler}s keep the strings in their (versioned) index.
      * @return A list of example values
      */
     public List<String> getExamples() {
-        return exampleCache.acquire(() ->
-                getHandler().getPossibilities()
-                        .stream()
-                        .map(p -> getHandler().toStringForce(p))
-                        .collect(Collectors.toList())
-        );
+        StrParameterHandler<?> handler = getHandler();
+        if (handler instanceof IndexedParameterHandler<?> indexed) {
+            return indexed.getIndex().getStrings();
+        }
+        List<?> possibilities = handler.getPossibilities();
+        if (possibilities == null) {
+            return List.of();
+        }
+        return possibilities.stream()
+                .map(handler::toStringForce)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -123,10 +165,11 @@ public final class StrVirtualParameter {
 
     /**
      * Get if the parameter has a default.
+     * {@link #isOptional() Optional} parameters default to empty.
      * @return true if the parameter has a default
      */
     public boolean hasDefault() {
-        return !getDefault().isEmpty();
+        return !getDefault().isEmpty() || isOptional();
     }
 
     /**
@@ -163,7 +206,13 @@ public final class StrVirtualParameter {
     public @Nullable Object getDefaultValue() throws
             StrParameterHandler.StrParseException,
             StrParameterHandler.StrWhichException {
-        return hasDefault() ? getHandler().parseSafe(getDefault()) : null;
+        if (!hasDefault()) {
+            return null;
+        }
+        if (getDefault().isEmpty() && getHandler() instanceof CollectionHandler) {
+            return ((CollectionHandler) getHandler()).empty();
+        }
+        return getHandler().parseSafe(getDefault());
     }
 
     /**
@@ -7,5 +7,7 @@
  * Including an interface
  * ({@link nl.codevs.strinput.system.virtual.StrVirtual})
  * for shared functions.
+ * Each category compiles its options into a
+ * {@link nl.codevs.strinput.system.virtual.StrVirtualIndex} for dispatch.
  */
 package nl.codevs.strinput.system.virtual;
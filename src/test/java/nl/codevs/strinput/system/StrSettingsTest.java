@@ -0,0 +1,85 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Settings tests.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class StrSettingsTest {
+
+    @Test
+    public void testSnapshotReused() {
+        StrSettings settings = new StrSettings();
+        assertSame(settings.snapshot(), settings.snapshot());
+    }
+
+    @Test
+    public void testSnapshotUnchangedBySetter() {
+        StrSettings settings = new StrSettings();
+        StrSettings.Snapshot snapshot = settings.snapshot();
+        assertTrue(snapshot.isAsync());
+        settings.setAsync(false);
+        assertTrue(snapshot.isAsync());
+        assertNotSame(snapshot, settings.snapshot());
+        assertFalse(settings.snapshot().isAsync());
+    }
+
+    @Test
+    public void testSnapshotNotStaleAfterConcurrentSnapshot() throws InterruptedException {
+        StrSettings settings = new StrSettings();
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            while (!stop.get()) {
+                settings.snapshot();
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                settings.setAsync(i % 2 == 0);
+                assertEquals(settings.isAsync(), settings.snapshot().isAsync());
+            }
+        } finally {
+            stop.set(true);
+            reader.join();
+        }
+    }
+
+    @Test
+    public void testSnapshotMatchesSettings() {
+        StrSettings settings = new StrSettings();
+        StrSettings.Snapshot snapshot = settings.snapshot();
+        assertEquals(settings.getMatchThreshold(), snapshot.getMatchThreshold());
+        assertEquals(settings.getPickingAmount(), snapshot.getPickingAmount());
+        assertEquals(settings.getCommandTimeout(), snapshot.getCommandTimeout());
+        assertEquals(settings.isAllowNullInput(), snapshot.isAllowNullInput());
+        assertEquals(settings.getDebugPrefix(), snapshot.getDebugPrefix());
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system;
+
+import environment.TestRoot;
+import environment.TestUser;
+import nl.codevs.strinput.system.execution.CommandResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Settings watcher tests.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class StrSettingsWatcherTest {
+
+    @Test
+    public void testCreatesFileInExistingFolder() throws IOException {
+        Path folder = Files.createTempDirectory("strinput");
+        StrCenter center = new StrCenter(folder.toFile(), new TestRoot());
+        assertTrue(new File(folder.toFile(), "strsettings.json").isFile());
+        center.shutdown();
+    }
+
+    @Test
+    public void testReloadOnFileChange() throws IOException {
+        Path folder = Files.createTempDirectory("strinput");
+        StrCenter center = new StrCenter(folder.toFile(), new TestRoot());
+        Path file = folder.resolve("strsettings.json");
+        String json = Files.readString(file, StandardCharsets.UTF_8);
+        Files.writeString(file, json.replace("\"matchThreshold\": 0.3", "\"matchThreshold\": 0.9"), StandardCharsets.UTF_8);
+        assertTrue(waitFor(() -> center.getSettings().getMatchThreshold() == 0.9));
+        center.shutdown();
+    }
+
+    @Test
+    public void testPersistInMemoryChange() throws IOException {
+        Path folder = Files.createTempDirectory("strinput");
+        StrCenter center = new StrCenter(folder.toFile(), new TestRoot());
+        Path file = folder.resolve("strsettings.json");
+        center.getSettings().setAsync(false);
+        assertTrue(waitFor(() -> read(file).contains("\"async\": false")));
+        assertEquals(center.getSettings().toJson(), read(file));
+        center.shutdown();
+    }
+
+    @Test
+    public void testSetterMarksDirty() throws IOException {
+        Path folder = Files.createTempDirectory("strinput");
+        StrCenter center = new StrCenter(folder.toFile(), new TestRoot());
+        StrSettings settings = center.getSettings();
+        settings.setAsync(false);
+        assertTrue(settings.isDirty());
+        assertTrue(waitFor(() -> read(folder.resolve("strsettings.json")).contains("\"async\": false")));
+        assertFalse(settings.isDirty());
+        assertFalse(Files.exists(folder.resolve("strsettings.json.tmp")));
+        center.shutdown();
+    }
+
+    @Test
+    public void testSkipNoOpWrite() throws IOException {
+        Path folder = Files.createTempDirectory("strinput");
+        StrCenter center = new StrCenter(folder.toFile(), new TestRoot());
+        File file = folder.resolve("strsettings.json").toFile();
+        assertTrue(file.setLastModified(0));
+        StrSettings settings = center.getSettings();
+        settings.setAsync(settings.isAsync());
+        assertTrue(waitFor(() -> !settings.isDirty()));
+        assertEquals(0, file.lastModified());
+        center.shutdown();
+    }
+
+    @Test
+    public void testRetryFailedWrite() throws IOException, InterruptedException {
+        Path folder = Files.createTempDirectory("strinput");
+        StrCenter center = new StrCenter(folder.toFile(), new TestRoot());
+        Path file = folder.resolve("strsettings.json");
+        Path blocker = Files.createDirectory(folder.resolve("strsettings.json.tmp"));
+        StrSettings settings = center.getSettings();
+        settings.setAsync(false);
+
+        // Past the debounce and a few polls, the write failed but the change is kept
+        Thread.sleep(1500);
+        assertTrue(settings.isDirty());
+        assertFalse(read(file).contains("\"async\": false"));
+
+        Files.delete(blocker);
+        assertTrue(waitFor(() -> read(file).contains("\"async\": false")));
+        center.shutdown();
+    }
+
+    @Test
+    public void testCommandAfterReload() throws IOException {
+        Path folder = Files.createTempDirectory("strinput");
+        Path file = folder.resolve("strsettings.json");
+        Files.writeString(file, "{\"settingsCommands\": true}", StandardCharsets.UTF_8);
+        StrCenter center = new StrCenter(folder.toFile(), new TestRoot());
+        StrSettings settings = center.getSettings();
+        Files.writeString(file, settings.toJson().replace("\"matchThreshold\": 0.3", "\"matchThreshold\": 0.9"), StandardCharsets.UTF_8);
+        assertTrue(waitFor(() -> center.getSettings().getMatchThreshold() == 0.9));
+
+        CommandResult result = center.onCommandAsync(new ArrayList<>(List.of("strinput", "set-async", "false")), TestUser.SUT).join();
+        assertTrue(result.isSuccess());
+        assertFalse(center.getSettings().isAsync());
+        assertFalse(center.getSettings().snapshot().isAsync());
+        assertEquals(0.9, center.getSettings().getMatchThreshold());
+        center.shutdown();
+    }
+
+    @Test
+    public void testPersistAfterReload() throws IOException {
+        Path folder = Files.createTempDirectory("strinput");
+        Path file = folder.resolve("strsettings.json");
+        Files.writeString(file, "{\"settingsCommands\": true}", StandardCharsets.UTF_8);
+        StrCenter center = new StrCenter(folder.toFile(), new TestRoot());
+        StrSettings settings = center.getSettings();
+
+        // Change
+        settings.setRateLimitBurst(20);
+        assertTrue(waitFor(() -> read(file).contains("\"rateLimitBurst\": 20")));
+
+        // Reload
+        Files.writeString(file, read(file).replace("\"matchThreshold\": 0.3", "\"matchThreshold\": 0.9"), StandardCharsets.UTF_8);
+        assertTrue(waitFor(() -> center.getSettings().getMatchThreshold() == 0.9));
+
+        // Change by command, and persist
+        CommandResult result = center.onCommandAsync(new ArrayList<>(List.of("strinput", "set-async", "false")), TestUser.SUT).join();
+        assertTrue(result.isSuccess());
+        assertTrue(waitFor(() -> read(file).contains("\"async\": false")));
+        String json = read(file);
+        assertTrue(json.contains("\"matchThreshold\": 0.9"));
+        assertTrue(json.contains("\"rateLimitBurst\": 20"));
+        assertFalse(center.getSettings().isDirty());
+        center.shutdown();
+    }
+
+    /**
+     * Wait for a condition to become true.
+     * @param condition the condition
+     * @return true if the condition became true within 10 seconds
+     */
+    private static boolean waitFor(final BooleanSupplier condition) {
+        long end = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < end) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read a file.
+     * @param file the file
+     * @return the content, or an empty string if it cannot be read
+     */
+    private static String read(final Path file) {
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.context;
+
+import environment.TestUser;
+import nl.codevs.strinput.system.StrUser;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test class for {@link StrContextCache}.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class StrContextCacheTest {
+
+    /**
+     * Context handler counting its calls.
+     */
+    private static final class CountingHandler implements StrContextHandler<Integer> {
+
+        /**
+         * The lifetime of values.
+         */
+        private final Lifetime lifetime;
+
+        /**
+         * The time to live of values.
+         */
+        private final Duration ttl;
+
+        /**
+         * The amount of calls.
+         */
+        private int calls;
+
+        CountingHandler(final Lifetime valueLifetime, final Duration valueTtl) {
+            this.lifetime = valueLifetime;
+            this.ttl = valueTtl;
+        }
+
+        @Override
+        public boolean supports(final Class<?> type) {
+            return type.equals(Integer.class);
+        }
+
+        @Override
+        public Integer handle(final StrUser user) {
+            return ++calls;
+        }
+
+        @Override
+        public Lifetime lifetime() {
+            return lifetime;
+        }
+
+        @Override
+        public Duration ttl() {
+            return ttl;
+        }
+    }
+
+    @Test
+    public void testDispatch() {
+        StrContextCache cache = new StrContextCache();
+        CountingHandler handler = new CountingHandler(StrContextHandler.Lifetime.DISPATCH, Duration.ZERO);
+        assertTrue(cache.open());
+        assertFalse(cache.open());
+        assertEquals(1, cache.get(handler, Integer.class, TestUser.SUT));
+        assertEquals(1, cache.get(handler, Integer.class, TestUser.SUT));
+        cache.close();
+        assertEquals(2, cache.get(handler, Integer.class, TestUser.SUT));
+        assertEquals(3, cache.get(handler, Integer.class, TestUser.SUT));
+    }
+
+    @Test
+    public void testDispatchPerUser() {
+        StrContextCache cache = new StrContextCache();
+        CountingHandler handler = new CountingHandler(StrContextHandler.Lifetime.DISPATCH, Duration.ZERO);
+        TestUser other = new TestUser() {
+            @Override
+            public @NotNull String getName() {
+                return "otherUser";
+            }
+        };
+        assertTrue(cache.open());
+        assertEquals(1, cache.get(handler, Integer.class, TestUser.SUT));
+
+        // A nested command of another user does not see the values of the outer command
+        assertFalse(cache.open());
+        assertEquals(2, cache.get(handler, Integer.class, other));
+        assertEquals(1, cache.get(handler, Integer.class, TestUser.SUT));
+        assertEquals(2, cache.get(handler, Integer.class, other));
+        cache.close();
+    }
+
+    @Test
+    public void testNone() {
+        StrContextCache cache = new StrContextCache();
+        CountingHandler handler = new CountingHandler(StrContextHandler.Lifetime.NONE, Duration.ZERO);
+        cache.open();
+        assertEquals(1, cache.get(handler, Integer.class, TestUser.SUT));
+        assertEquals(2, cache.get(handler, Integer.class, TestUser.SUT));
+        cache.close();
+    }
+
+    @Test
+    public void testTtl() throws InterruptedException {
+        StrContextCache cache = new StrContextCache();
+        CountingHandler handler = new CountingHandler(StrContextHandler.Lifetime.TTL, Duration.ofMillis(500));
+        assertEquals(1, cache.get(handler, Integer.class, TestUser.SUT));
+        assertEquals(1, cache.get(handler, Integer.class, TestUser.SUT));
+        Thread.sleep(600);
+        assertEquals(2, cache.get(handler, Integer.class, TestUser.SUT));
+        cache.invalidate(TestUser.SUT);
+        assertEquals(0, cache.getTimedSize());
+        assertEquals(3, cache.get(handler, Integer.class, TestUser.SUT));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Command result tests.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class CommandResultTest {
+
+    @Test
+    public void testFirstCompletionWins() {
+        CommandResult.Recorder recorder = new CommandResult.Recorder(List.of("test"));
+        recorder.fail("first");
+        recorder.succeed();
+        CommandResult result = recorder.getFuture().join();
+        assertFalse(result.isSuccess());
+        assertEquals("first", result.getReason());
+    }
+
+    @Test
+    public void testSkippedPhases() {
+        CommandResult.Recorder recorder = new CommandResult.Recorder(List.of("test", "1"));
+        recorder.start();
+        recorder.dispatch();
+        recorder.resolve("test");
+        recorder.fail("parse");
+        CommandResult result = recorder.getFuture().join();
+        assertEquals(0, result.getNanos(CommandResult.Phase.EXECUTE));
+        assertTrue(result.getNanos(CommandResult.Phase.PARSE) > 0);
+        assertEquals(
+                result.getTotalNanos(),
+                result.getNanos(CommandResult.Phase.QUEUE)
+                        + result.getNanos(CommandResult.Phase.SETUP)
+                        + result.getNanos(CommandResult.Phase.RESOLVE)
+                        + result.getNanos(CommandResult.Phase.PARSE)
+        );
+    }
+
+    @Test
+    public void testBoundArguments() {
+        CommandResult.Recorder recorder = new CommandResult.Recorder(List.of("test", "1"));
+        recorder.resolve("test");
+        recorder.bind(Map.of("value", 1));
+        recorder.succeed();
+        CommandResult result = recorder.getFuture().join();
+        assertTrue(result.isSuccess());
+        assertEquals("test", result.getPath());
+        assertEquals(Map.of("value", 1), result.getArguments());
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Executor tests.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class StrExecutorTest {
+
+    @Test
+    public void testRunsOnPool() throws InterruptedException {
+        StrExecutor executor = new StrExecutor("test", 1, 1, 1, StrExecutor.RejectionPolicy.REJECT);
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(done::countDown, () -> { });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRejectWhenFull() throws InterruptedException {
+        StrExecutor executor = new StrExecutor("test", 1, 1, 1, StrExecutor.RejectionPolicy.REJECT);
+        CountDownLatch block = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        executor.execute(() -> await(block), rejected::incrementAndGet);
+        executor.execute(() -> { }, rejected::incrementAndGet);
+        executor.execute(() -> { }, rejected::incrementAndGet);
+        block.countDown();
+        assertEquals(1, rejected.get());
+    }
+
+    @Test
+    public void testDiscardOldestWhenFull() {
+        StrExecutor executor = new StrExecutor("test", 1, 1, 1, StrExecutor.RejectionPolicy.DISCARD_OLDEST);
+        CountDownLatch block = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        executor.execute(() -> await(block), () -> rejected.addAndGet(100));
+        executor.execute(() -> { }, () -> rejected.addAndGet(10));
+        executor.execute(() -> { }, () -> rejected.addAndGet(1));
+        block.countDown();
+        assertEquals(10, rejected.get());
+    }
+
+    @Test
+    public void testPriorityOrder() throws InterruptedException {
+        StrExecutor executor = new StrExecutor("test", 1, 1, 3, StrExecutor.RejectionPolicy.REJECT);
+        CountDownLatch block = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        executor.execute(() -> await(block), () -> { });
+        executor.execute(() -> { order.add("low 1"); done.countDown(); }, () -> { }, 0);
+        executor.execute(() -> { order.add("high"); done.countDown(); }, () -> { }, 5);
+        executor.execute(() -> { order.add("low 2"); done.countDown(); }, () -> { }, 0);
+        block.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("high", "low 1", "low 2"), order);
+    }
+
+    @Test
+    public void testHigherPriorityPushesOutWhenFull() throws InterruptedException {
+        StrExecutor executor = new StrExecutor("test", 1, 1, 1, StrExecutor.RejectionPolicy.REJECT);
+        CountDownLatch block = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        executor.execute(() -> await(block), () -> rejected.addAndGet(100));
+        executor.execute(() -> { }, () -> rejected.addAndGet(10), 0);
+        executor.execute(done::countDown, () -> rejected.addAndGet(1), Integer.MAX_VALUE);
+        block.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(10, rejected.get());
+    }
+
+    @Test
+    public void testGrowsBeforePushingOut() throws InterruptedException {
+        StrExecutor executor = new StrExecutor("test", 1, 2, 1, StrExecutor.RejectionPolicy.REJECT);
+        CountDownLatch block = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        executor.execute(() -> await(block), rejected::incrementAndGet);
+        executor.execute(() -> { }, rejected::incrementAndGet, 0);
+        executor.execute(done::countDown, rejected::incrementAndGet, Integer.MAX_VALUE);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        block.countDown();
+        assertEquals(0, rejected.get());
+    }
+
+    @Test
+    public void testLaneNotPushedOutWhole() throws InterruptedException {
+        StrExecutor executor = new StrExecutor("test", 1, 1, 1, StrExecutor.RejectionPolicy.REJECT);
+        StrUserLanes lanes = new StrUserLanes(executor);
+        CountDownLatch block = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        executor.execute(() -> await(block), () -> rejected.addAndGet(100));
+        lanes.execute("user", ran::incrementAndGet, () -> rejected.addAndGet(10), 0);
+        lanes.execute("user", ran::incrementAndGet, () -> rejected.addAndGet(10), 0);
+        executor.execute(ran::incrementAndGet, () -> rejected.addAndGet(1), Integer.MAX_VALUE);
+        block.countDown();
+        assertTrue(waitFor(ran, 2));
+        assertEquals(1, rejected.get());
+    }
+
+    @Test
+    public void testSingleCommandLanePushedOut() throws InterruptedException {
+        StrExecutor executor = new StrExecutor("test", 1, 1, 1, StrExecutor.RejectionPolicy.REJECT);
+        StrUserLanes lanes = new StrUserLanes(executor);
+        CountDownLatch block = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        executor.execute(() -> await(block), () -> rejected.addAndGet(100));
+        lanes.execute("user", ran::incrementAndGet, () -> rejected.addAndGet(10), 0);
+        executor.execute(ran::incrementAndGet, () -> rejected.addAndGet(1), Integer.MAX_VALUE);
+        assertEquals(10, rejected.get());
+        lanes.execute("user", ran::incrementAndGet, () -> rejected.addAndGet(10), Integer.MAX_VALUE);
+        block.countDown();
+        assertTrue(waitFor(ran, 1));
+        assertEquals(20, rejected.get());
+    }
+
+    @Test
+    public void testShutdownDrains() throws InterruptedException {
+        StrExecutor executor = new StrExecutor("test", 1, 1, 2, StrExecutor.RejectionPolicy.REJECT);
+        AtomicInteger ran = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        executor.execute(ran::incrementAndGet, rejected::incrementAndGet);
+        executor.execute(ran::incrementAndGet, rejected::incrementAndGet);
+        executor.shutdown();
+        executor.execute(ran::incrementAndGet, rejected::incrementAndGet);
+        assertTrue(executor.awaitTermination(Duration.ofSeconds(5)));
+        assertEquals(2, ran.get());
+        assertEquals(1, rejected.get());
+    }
+
+    /**
+     * Wait for a counter to reach a value.
+     * @param counter the counter
+     * @param value the value to wait for
+     * @return true if the value was reached within 5 seconds
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static boolean waitFor(final AtomicInteger counter, final int value) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (counter.get() < value) {
+            if (System.nanoTime() > end) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * Wait for a latch.
+     * @param latch the latch
+     */
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Invocation registry tests.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class StrInvocationsTest {
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        StrInvocations invocations = new StrInvocations("test");
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicBoolean cleared = new AtomicBoolean();
+        Thread thread = new Thread(() -> {
+            StrInvocations.Invocation invocation = invocations.start("user", "test", 0);
+            started.countDown();
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrupted.set(invocation.isCancelled());
+            }
+            invocation.finish();
+            cleared.set(!Thread.currentThread().isInterrupted());
+        });
+        thread.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(1, invocations.cancel("user"));
+        thread.join(5000);
+        assertTrue(interrupted.get());
+        assertTrue(cleared.get());
+        assertEquals(0, invocations.getRunning());
+    }
+
+    @Test
+    public void testTimeout() {
+        StrInvocations invocations = new StrInvocations("test");
+        StrInvocations.Invocation invocation = invocations.start("user", "test", 1);
+        try {
+            Thread.sleep(5000);
+        } catch (InterruptedException ignored) {
+            // Cancelled by the watchdog
+        }
+        assertTrue(invocation.isCancelled());
+        assertEquals("timed out after 1s", invocation.getReason());
+        invocation.finish();
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void testFinishedNotCancelled() {
+        StrInvocations invocations = new StrInvocations("test");
+        StrInvocations.Invocation invocation = invocations.start("user", "test", 0);
+        invocation.finish();
+        assertEquals(0, invocations.cancel("user"));
+        assertFalse(invocation.isCancelled());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void testShutdownCancelsWaits() throws InterruptedException {
+        StrInvocations invocations = new StrInvocations("test");
+        CountDownLatch waiting = new CountDownLatch(1);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Thread thread = new Thread(() -> {
+            waiting.countDown();
+            try {
+                invocations.await(new CompletableFuture<>(), 5, TimeUnit.SECONDS);
+            } catch (CancellationException e) {
+                cancelled.set(true);
+            } catch (Exception ignored) {
+                // Not cancelled
+            }
+        });
+        thread.start();
+        assertTrue(waiting.await(5, TimeUnit.SECONDS));
+        while (invocations.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+        invocations.shutdown();
+        thread.join(5000);
+        assertTrue(cancelled.get());
+        assertEquals(0, invocations.getWaiting());
+        assertThrows(CancellationException.class, () -> invocations.await(new CompletableFuture<>(), 5, TimeUnit.SECONDS));
+    }
+}
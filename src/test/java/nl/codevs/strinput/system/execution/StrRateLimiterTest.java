@@ -0,0 +1,68 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.execution;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rate limiter tests.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class StrRateLimiterTest {
+
+    @Test
+    public void testBurstThenReject() {
+        StrRateLimiter limiter = new StrRateLimiter();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("user", 1, 1, 3));
+        }
+        assertFalse(limiter.tryAcquire("user", 1, 1, 3));
+    }
+
+    @Test
+    public void testCost() {
+        StrRateLimiter limiter = new StrRateLimiter();
+        assertFalse(limiter.tryAcquire("user", 4, 1, 3));
+        assertTrue(limiter.tryAcquire("user", 2, 1, 3));
+        assertFalse(limiter.tryAcquire("user", 2, 1, 3));
+        assertTrue(limiter.tryAcquire("user", 1, 1, 3));
+    }
+
+    @Test
+    public void testUsersSeparate() {
+        StrRateLimiter limiter = new StrRateLimiter();
+        assertTrue(limiter.tryAcquire("user1", 1, 1, 1));
+        assertFalse(limiter.tryAcquire("user1", 1, 1, 1));
+        assertTrue(limiter.tryAcquire("user2", 1, 1, 1));
+        assertEquals(2, limiter.getBuckets());
+    }
+
+    @Test
+    public void testRefill() throws InterruptedException {
+        StrRateLimiter limiter = new StrRateLimiter();
+        assertTrue(limiter.tryAcquire("user", 1, 100, 1));
+        assertFalse(limiter.tryAcquire("user", 1, 100, 1));
+        Thread.sleep(50);
+        assertTrue(limiter.tryAcquire("user", 1, 100, 1));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sync queue tests.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class StrSyncQueueTest {
+
+    @Test
+    public void testDrainAllWithinBudget() {
+        StrSyncQueue queue = new StrSyncQueue();
+        List<Integer> ran = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            queue.submit(() -> ran.add(n));
+        }
+        assertEquals(5, queue.getQueued());
+        assertEquals(5, queue.drain(TimeUnit.SECONDS.toNanos(1)));
+        assertEquals(List.of(0, 1, 2, 3, 4), ran);
+        assertEquals(0, queue.getQueued());
+        assertEquals(0, queue.getLastOverrunNanos());
+    }
+
+    @Test
+    public void testRollOver() {
+        StrSyncQueue queue = new StrSyncQueue();
+        for (int i = 0; i < 3; i++) {
+            queue.submit(() -> sleep(20));
+        }
+        assertEquals(1, queue.drain(TimeUnit.MILLISECONDS.toNanos(10)));
+        assertEquals(2, queue.getQueued());
+        assertTrue(queue.getLastOverrunNanos() > 0);
+        assertEquals(1, queue.getOverrunTicks());
+        assertEquals(1, queue.drain(0));
+        assertEquals(1, queue.getQueued());
+        assertTrue(queue.getMaxOverrunNanos() >= queue.getLastOverrunNanos());
+    }
+
+    @Test
+    public void testDrainAllIgnoresBudget() {
+        StrSyncQueue queue = new StrSyncQueue();
+        List<Integer> ran = new ArrayList<>();
+        queue.submit(() -> sleep(20));
+        queue.submit(() -> queue.submit(() -> ran.add(2)));
+        queue.submit(() -> ran.add(1));
+        assertEquals(4, queue.drainAll());
+        assertEquals(List.of(1, 2), ran);
+        assertEquals(0, queue.getQueued());
+        assertEquals(0, queue.getOverrunTicks());
+    }
+
+    @Test
+    public void testExceptionDoesNotStopDrain() {
+        StrSyncQueue queue = new StrSyncQueue();
+        List<String> ran = new ArrayList<>();
+        Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+        Thread.currentThread().setUncaughtExceptionHandler((t, e) -> ran.add("exception"));
+        try {
+            queue.submit(() -> {
+                throw new IllegalStateException();
+            });
+            queue.submit(() -> ran.add("task"));
+            assertEquals(2, queue.drain(TimeUnit.SECONDS.toNanos(1)));
+        } finally {
+            Thread.currentThread().setUncaughtExceptionHandler(handler);
+        }
+        assertEquals(List.of("exception", "task"), ran);
+    }
+
+    /**
+     * Sleep the current thread.
+     * @param millis milliseconds to sleep
+     */
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * User lane tests.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class StrUserLanesTest {
+
+    @Test
+    public void testSameUserInOrder() throws InterruptedException {
+        StrUserLanes lanes = new StrUserLanes(new StrExecutor("test", 4, 4, 64, StrExecutor.RejectionPolicy.REJECT));
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++) {
+            int x = i;
+            lanes.execute("user", () -> {
+                order.add(x);
+                done.countDown();
+            }, () -> { });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    public void testUsersInParallel() throws InterruptedException {
+        StrUserLanes lanes = new StrUserLanes(new StrExecutor("test", 2, 2, 64, StrExecutor.RejectionPolicy.REJECT));
+        CountDownLatch both = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(2);
+        for (String user : List.of("one", "two")) {
+            lanes.execute(user, () -> {
+                both.countDown();
+                try {
+                    if (both.await(5, TimeUnit.SECONDS)) {
+                        done.countDown();
+                    }
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+            }, () -> { });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLaneRemovedWhenEmpty() throws InterruptedException {
+        StrUserLanes lanes = new StrUserLanes(new StrExecutor("test", 1, 1, 8, StrExecutor.RejectionPolicy.REJECT));
+        CountDownLatch done = new CountDownLatch(1);
+        lanes.execute("user", done::countDown, () -> { });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && lanes.getActiveLanes() != 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, lanes.getActiveLanes());
+    }
+
+    @Test
+    public void testFullLaneRejects() throws InterruptedException {
+        StrUserLanes lanes = new StrUserLanes(new StrExecutor("test", 1, 1, 8, StrExecutor.RejectionPolicy.REJECT), 3);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        lanes.execute("user", () -> {
+            blocked.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ran.incrementAndGet();
+        }, rejected::incrementAndGet);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            lanes.execute("user", ran::incrementAndGet, rejected::incrementAndGet);
+        }
+        assertEquals(3, rejected.get());
+
+        // Other users have their own lane
+        CountDownLatch other = new CountDownLatch(1);
+        lanes.execute("other", other::countDown, rejected::incrementAndGet);
+        assertEquals(3, rejected.get());
+
+        release.countDown();
+        assertTrue(other.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && ran.get() != 3; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, ran.get());
+    }
+}
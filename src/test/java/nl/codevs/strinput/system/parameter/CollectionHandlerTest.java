@@ -0,0 +1,90 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.parameter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Collection handler tests.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class CollectionHandlerTest {
+
+    // Parameter types to read generic types from
+    public List<Integer> list;
+    public Set<String> set;
+    public int[] array;
+    public Optional<Integer> optional;
+    public List<? extends Number> wildcard;
+
+    /**
+     * Create a handler for the type of a field of this class.
+     * @param field the field name
+     * @return the handler
+     */
+    private static CollectionHandler handler(final String field) throws NoSuchFieldException {
+        return CollectionHandler.of(
+                CollectionHandlerTest.class.getField(field).getGenericType(),
+                type -> type == Integer.class || type == int.class
+                        ? new IntegerHandler()
+                        : type == String.class ? new StringHandler() : null
+        );
+    }
+
+    @Test
+    public void testList() throws Throwable {
+        assertEquals(List.of(1, 2, 3), handler("list").parse("1, 2,,3"));
+    }
+
+    @Test
+    public void testSet() throws Throwable {
+        assertEquals(Set.of("a", "b"), handler("set").parse("a,b,a"));
+    }
+
+    @Test
+    public void testArray() throws Throwable {
+        assertEquals("[4, 5]", Arrays.toString((int[]) handler("array").parse("4,5")));
+        assertEquals("4,5", handler("array").toStringForce(new int[]{4, 5}));
+    }
+
+    @Test
+    public void testOptional() throws Throwable {
+        CollectionHandler handler = handler("optional");
+        assertNotNull(handler);
+        assertEquals(Optional.of(7), handler.parse("7"));
+        assertEquals(Optional.empty(), handler.empty());
+        assertThrows(StrParameterHandler.StrParseException.class, () -> handler.parse("7,8"));
+    }
+
+    @Test
+    public void testInvalid() throws NoSuchFieldException {
+        assertNull(handler("wildcard"));
+        assertThrows(StrParameterHandler.StrParseException.class, () -> handler("list").parseSafe("1,x"));
+    }
+}
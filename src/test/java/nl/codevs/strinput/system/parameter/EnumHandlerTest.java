@@ -0,0 +1,86 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.parameter;
+
+import environment.TestCenter;
+import nl.codevs.strinput.system.Context;
+import nl.codevs.strinput.system.StrCenter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Enum handler tests.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class EnumHandlerTest {
+
+    /**
+     * Test enum.
+     */
+    private enum Mode {
+        SURVIVAL,
+        SPECTATOR,
+        CREATIVE {
+            @Override
+            public String toString() {
+                return "build";
+            }
+        }
+    }
+
+    @BeforeAll
+    public static void setup() {
+        if (!Context.registered()) {
+            Context.touch(new TestCenter());
+        }
+    }
+
+    @Test
+    public void testExact() throws Throwable {
+        EnumHandler<?> handler = EnumHandler.of(Mode.class);
+        assertEquals(Mode.SURVIVAL, handler.parse("survival"));
+        assertEquals(Mode.CREATIVE, handler.parse("Build"));
+    }
+
+    @Test
+    public void testPrefix() throws Throwable {
+        EnumHandler<?> handler = EnumHandler.of(Mode.class);
+        assertEquals(Mode.CREATIVE, handler.parse("cr"));
+        StrParameterHandler.StrWhichException e = assertThrows(
+                StrParameterHandler.StrWhichException.class,
+                () -> handler.parse("s")
+        );
+        assertEquals(List.of(Mode.SURVIVAL, Mode.SPECTATOR), e.getOptions());
+        assertThrows(StrParameterHandler.StrParseException.class, () -> handler.parse("adventure"));
+    }
+
+    @Test
+    public void testResolved() throws StrCenter.ParameterHandling.StrNoParameterHandlerException {
+        assertSame(EnumHandler.of(Mode.class), StrCenter.ParameterHandling.getHandler(Mode.class));
+        assertSame(EnumHandler.of(Mode.class), EnumHandler.of(Mode.CREATIVE.getClass()));
+        assertNull(EnumHandler.of(String.class));
+    }
+}
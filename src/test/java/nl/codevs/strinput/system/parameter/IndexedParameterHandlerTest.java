@@ -0,0 +1,111 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.parameter;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Indexed parameter handler tests.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class IndexedParameterHandlerTest {
+
+    /**
+     * Handler over a mutable list of names, counting index builds.
+     */
+    private static final class NameHandler extends IndexedParameterHandler<String> {
+
+        /**
+         * The names.
+         */
+        private final List<String> names = new ArrayList<>(List.of("Steve", "Alex", "alexander", "Bob"));
+
+        /**
+         * Amount of times the possibilities were listed.
+         */
+        private int listed = 0;
+
+        @Override
+        protected @NotNull Collection<String> listPossibilities() {
+            listed++;
+            return names;
+        }
+
+        @Override
+        public boolean supports(@NotNull final Class<?> type) {
+            return type == String.class;
+        }
+
+        @Override
+        public @NotNull String parse(@NotNull final String text) throws Throwable {
+            return find(String.class, text);
+        }
+
+        @Override
+        public @NotNull String getRandomDefault() {
+            return names.get(0);
+        }
+    }
+
+    @Test
+    public void testPrefixLookup() {
+        NameHandler handler = new NameHandler();
+        assertEquals(List.of("Alex", "alexander"), handler.getPossibilities("AL"));
+        assertEquals(List.of("Steve"), handler.getPossibilities("st"));
+        assertEquals(List.of(), handler.getPossibilities("x"));
+        assertEquals(4, handler.getPossibilities(" ").size());
+    }
+
+    @Test
+    public void testParse() throws Throwable {
+        NameHandler handler = new NameHandler();
+        assertEquals("Alex", handler.parse("alex"));
+        assertEquals("alexander", handler.parse("alexa"));
+        assertEquals("Bob", handler.parse("b"));
+        assertThrows(StrParameterHandler.StrWhichException.class, () -> handler.parse("a"));
+        assertThrows(StrParameterHandler.StrParseException.class, () -> handler.parse("z"));
+    }
+
+    @Test
+    public void testInvalidate() {
+        NameHandler handler = new NameHandler();
+        PossibilityIndex<String> index = handler.getIndex();
+        handler.getPossibilities("a");
+        assertSame(index, handler.getIndex());
+        assertEquals(1, handler.listed);
+
+        handler.names.add("Ada");
+        assertEquals(2, handler.getPossibilities("a").size());
+        handler.invalidate();
+        assertEquals(List.of("Ada", "Alex", "alexander"), handler.getPossibilities("a"));
+        assertNotSame(index, handler.getIndex());
+        assertEquals(2, handler.listed);
+        assertEquals(List.of("Steve", "Alex", "alexander", "Bob", "Ada"), handler.getIndex().getStrings());
+    }
+}
@@ -23,7 +23,11 @@ import nl.codevs.strinput.system.StrCenter;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * Handler test cases.
@@ -74,4 +78,40 @@ public class StrParameterHandlerTest {
         assert value != null;
         assertEquals((byte) 10, value);
     }
+
+    /**
+     * Type without a handler until {@link #testRegisterAfterLookup()} registers one.
+     */
+    private static final class Marker { }
+
+    @Test
+    public void testRegisterAfterLookup() throws StrCenter.ParameterHandling.StrNoParameterHandlerException {
+        assertThrows(
+                StrCenter.ParameterHandling.StrNoParameterHandlerException.class,
+                () -> StrCenter.ParameterHandling.getHandler(Marker.class)
+        );
+        StrParameterHandler<Marker> handler = new StrParameterHandler<>() {
+            @Override
+            public List<Marker> getPossibilities() {
+                return List.of(new Marker());
+            }
+
+            @Override
+            public boolean supports(final Class<?> type) {
+                return type.equals(Marker.class);
+            }
+
+            @Override
+            public Marker parse(final String text) {
+                return new Marker();
+            }
+
+            @Override
+            public String getRandomDefault() {
+                return "marker";
+            }
+        };
+        StrCenter.ParameterHandling.register(handler);
+        assertSame(handler, StrCenter.ParameterHandling.getHandler(Marker.class));
+    }
 }
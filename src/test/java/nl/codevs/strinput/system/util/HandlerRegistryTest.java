@@ -0,0 +1,107 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Test class for {@link HandlerRegistry}.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class HandlerRegistryTest {
+
+    /**
+     * Test handler supporting a type.
+     */
+    private interface Handler {
+        boolean supports(Class<?> type);
+    }
+
+    /**
+     * Handles numbers.
+     */
+    private static final class NumberHandler implements Handler {
+        @Override
+        public boolean supports(final Class<?> type) {
+            return Number.class.isAssignableFrom(type);
+        }
+    }
+
+    /**
+     * Handles integers.
+     */
+    private static final class IntegerHandler implements Handler {
+        @Override
+        public boolean supports(final Class<?> type) {
+            return type.equals(Integer.class);
+        }
+    }
+
+    @Test
+    public void testRegistrationOrder() {
+        HandlerRegistry<Handler> registry = new HandlerRegistry<>(Handler::supports);
+        Handler numbers = new NumberHandler();
+        registry.register(numbers, new IntegerHandler());
+        assertSame(numbers, registry.resolve(Integer.class));
+        assertNull(registry.resolve(String.class));
+    }
+
+    @Test
+    public void testPriority() {
+        HandlerRegistry<Handler> registry = new HandlerRegistry<>(Handler::supports);
+        Handler numbers = new NumberHandler();
+        Handler integers = new IntegerHandler();
+        registry.register(-1, numbers);
+        assertSame(numbers, registry.resolve(Integer.class));
+        registry.register(integers);
+        assertSame(integers, registry.resolve(Integer.class));
+        assertSame(numbers, registry.resolve(Long.class));
+        assertEquals(List.of(integers, numbers), registry.getHandlers());
+    }
+
+    @Test
+    public void testDuplicates() {
+        HandlerRegistry<Handler> registry = new HandlerRegistry<>(Handler::supports);
+        Handler numbers = new NumberHandler();
+        Handler integers = new IntegerHandler();
+        assertEquals(1, registry.register(numbers));
+        assertEquals(0, registry.register(numbers));
+        assertEquals(1, registry.register(numbers, integers, integers));
+        assertEquals(2, registry.getHandlers().size());
+        assertSame(numbers, registry.resolve(Double.class));
+    }
+
+    @Test
+    public void testSameClassDifferentInstances() {
+        HandlerRegistry<Handler> registry = new HandlerRegistry<>(Handler::supports);
+        Handler first = new NumberHandler();
+        Handler second = new NumberHandler();
+        assertEquals(1, registry.register(first));
+        assertEquals(1, registry.register(1, second));
+        assertEquals(List.of(second, first), registry.getHandlers());
+        assertSame(second, registry.resolve(Double.class));
+    }
+}
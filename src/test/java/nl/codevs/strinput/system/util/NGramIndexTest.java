@@ -0,0 +1,96 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * NGram candidate index tests.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class NGramIndexTest {
+
+    @Test
+    public void testCandidatesAreComplete() {
+        Random random = new Random(7);
+        String alphabet = "abcdefgh-";
+        NGram.Profile[] names = new NGram.Profile[300];
+        String[] strings = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            strings[i] = randomString(random, alphabet, 2 + random.nextInt(14));
+            names[i] = NGram.Profile.of(strings[i]);
+        }
+        NGramIndex index = new NGramIndex(names);
+        assertEquals(300, index.size());
+
+        int pruned = 0;
+        for (int n = 0; n < 300; n++) {
+            String input = randomString(random, alphabet, 1 + random.nextInt(10));
+            NGram.Scorer scorer = new NGram.Scorer(input);
+            for (double threshold : new double[]{0.2, 0.4, 0.6, 0.8}) {
+                boolean[] candidates = new boolean[names.length];
+                assertTrue(index.candidates(scorer, threshold, candidates));
+                for (int i = 0; i < names.length; i++) {
+                    if (scorer.match(names[i]) >= threshold) {
+                        assertTrue(candidates[i], input + " should match " + strings[i] + " at " + threshold);
+                    } else if (!candidates[i]) {
+                        pruned++;
+                    }
+                }
+            }
+        }
+        assertTrue(pruned > 0);
+    }
+
+    @Test
+    public void testNoThreshold() {
+        NGramIndex index = new NGramIndex(new NGram.Profile[]{NGram.Profile.of("add")});
+        assertFalse(index.candidates(new NGram.Scorer("x"), 0, new boolean[1]));
+    }
+
+    @Test
+    public void testMinCommonLength() {
+        // 10 * L + L * (L + 1) / 2 >= 0.6 * 155
+        NGram.Scorer scorer = new NGram.Scorer("abcdefghij");
+        assertEquals(7, scorer.minCommonLength(0.6));
+        assertEquals(0, scorer.minCommonLength(0));
+        assertEquals(11, scorer.minCommonLength(1.1));
+    }
+
+    /**
+     * Create a random string.
+     * @param random the randomizer
+     * @param alphabet the characters to use
+     * @param length the length
+     * @return the string
+     */
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+}
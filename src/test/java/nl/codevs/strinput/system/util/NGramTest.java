@@ -24,6 +24,8 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -81,6 +83,85 @@ public class NGramTest {
         assertEquals("multiplication, multiplications", o.stream().map(StrVirtual::getName).collect(Collectors.joining(", ")));
     }
 
+    @Test
+    public void testScorerEqualsReference() {
+        Random random = new Random(42);
+        String alphabet = "abcAB-";
+        for (int n = 0; n < 5000; n++) {
+            String source = randomString(random, alphabet, 1 + random.nextInt(10));
+            String target = randomString(random, alphabet, random.nextInt(14));
+            assertEquals(referenceMatch(source, target), NGram.nGramMatch(source, target), source + " / " + target);
+        }
+        NGram.Scorer scorer = new NGram.Scorer("Multiplication");
+        for (String target : List.of("multiplication", "multiplications", "add", "complicated-multiplication", "")) {
+            assertEquals(referenceMatch("Multiplication", target), scorer.score(NGram.Profile.of(target)));
+        }
+    }
+
+    @Test
+    public void testSignatureFilterIsSound() {
+        Random random = new Random(11);
+        String alphabet = "abcdefghijklmnop-";
+        int ruledOut = 0;
+        for (int n = 0; n < 2000; n++) {
+            String source = randomString(random, alphabet, 1 + random.nextInt(12));
+            NGram.Profile target = NGram.Profile.of(randomString(random, alphabet, 1 + random.nextInt(16)));
+            NGram.Scorer scorer = new NGram.Scorer(source);
+            for (double threshold : new double[]{0, 0.3, 0.6, 0.9}) {
+                if (scorer.match(target) >= threshold) {
+                    assertTrue(scorer.mayMatch(target, threshold));
+                } else if (!scorer.mayMatch(target, threshold)) {
+                    ruledOut++;
+                }
+            }
+        }
+        assertTrue(ruledOut > 0);
+    }
+
+    /**
+     * Create a random string.
+     * @param random the randomizer
+     * @param alphabet the characters to use
+     * @param length the length
+     * @return the string
+     */
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The original n-gram match, comparing all substrings.
+     * @param source string 1
+     * @param target string 2
+     * @return the match score
+     */
+    private static int referenceMatch(String source, String target) {
+        String sourceLower = source.toLowerCase(Locale.ROOT);
+        String targetLower = target.toLowerCase(Locale.ROOT);
+        int nGramScore = 0;
+        for (int i = 1; i < sourceLower.length() + 1; i++) {
+            if (targetLower.startsWith(sourceLower.substring(0, i))) {
+                nGramScore += sourceLower.length();
+            }
+            List<String> set = new ArrayList<>();
+            for (int j = 0; j < sourceLower.length() - i + 1; j++) {
+                set.add(sourceLower.substring(j, j + i));
+            }
+            for (int j = 0; j < targetLower.length() - i + 1; j++) {
+                String sub = targetLower.substring(j, j + i);
+                if (set.contains(sub)) {
+                    nGramScore += i;
+                    break;
+                }
+            }
+        }
+        return nGramScore;
+    }
+
     /**
      * Testing.
      * @param args not used
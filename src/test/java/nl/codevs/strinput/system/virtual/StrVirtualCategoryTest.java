@@ -20,6 +20,7 @@ package nl.codevs.strinput.system.virtual;
 import environment.TestCenter;
 import environment.TestRoot;
 import nl.codevs.strinput.system.Context;
+import nl.codevs.strinput.system.util.NGram;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -27,6 +28,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  * Test class for {@link StrVirtualCategory}.
@@ -54,4 +57,59 @@ class StrVirtualCategoryTest {
         new StrVirtualCategory(null, new TestRoot()).run(new ArrayList<>(List.of("multi", "2", "3")));
         assertEquals(6, TestRoot.multiplicationResult);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findExact() {
+        StrVirtualCategory category = new StrVirtualCategory(null, new TestRoot());
+        assertEquals("multiplication", category.findExact(List.of("Multiplication", "2", "3")).getName());
+        assertEquals(category, category.findExact(List.of("multi", "2", "3")));
+        assertEquals(category, category.findExact(List.of()));
+    }
+
+    @Test
+    void indexRanksLikeNGram() {
+        StrVirtualCategory category = new StrVirtualCategory(null, new TestRoot());
+        List<StrVirtual> options = new ArrayList<>();
+        options.addAll(category.getSubCats());
+        options.addAll(category.getCommands());
+        for (String input : List.of("multiplication", "multi", "compmut", "add", "x")) {
+            for (double threshold : new double[]{0, 0.3, 0.6}) {
+                assertEquals(
+                        NGram.sortByNGram(input, options, threshold),
+                        category.getIndex().rank(input, threshold, Context.user())
+                );
+            }
+        }
+    }
+
+    @Test
+    void indexExact() {
+        StrVirtualCategory category = new StrVirtualCategory(null, new TestRoot());
+        StrVirtualIndex index = category.getIndex();
+        assertEquals(1, index.exact("ADD").length);
+        assertEquals("add", index.exact("add")[0].getName());
+        assertEquals(0, index.exact("multi").length);
+        category.recompile();
+        assertNotSame(index, category.getIndex());
+        assertEquals(index.size(), category.getIndex().size());
+    }
+
+    @Test
+    void runStaged() {
+        StrVirtualCategory category = new StrVirtualCategory(null, new TestRoot());
+        category.run(new ArrayList<>(List.of("Multiplications", "2", "3")));
+        assertEquals(7, TestRoot.multiplicationResult);
+        category.run(new ArrayList<>(List.of("comp", "5")));
+        assertEquals(5, TestRoot.multiplicationResult);
+    }
+
+    @Test
+    void indexPrefix() {
+        StrVirtualIndex index = new StrVirtualCategory(null, new TestRoot()).getIndex();
+        assertEquals("complicated-multiplication", index.uniquePrefix("COMP", Context.user()).getName());
+        assertEquals("add", index.uniquePrefix("a", Context.user()).getName());
+        assertNull(index.uniquePrefix("multi", Context.user()));
+        assertNull(index.uniquePrefix("x", Context.user()));
+        assertEquals(1, index.exact("multiplication", Context.user()).size());
+    }
+}
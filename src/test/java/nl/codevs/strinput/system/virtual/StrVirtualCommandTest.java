@@ -17,6 +17,8 @@
  */
 package nl.codevs.strinput.system.virtual;
 
+import environment.TestCenter;
+import nl.codevs.strinput.system.Context;
 import nl.codevs.strinput.system.Param;
 import nl.codevs.strinput.system.StrCategory;
 import nl.codevs.strinput.system.StrInput;
@@ -38,6 +40,8 @@ class StrVirtualCommandTest implements StrCategory {
 
     private static int x = 0;
 
+    private static List<Integer> values;
+
     @StrInput(name = "test")
     public void testCommand(
             @Param(
@@ -48,6 +52,16 @@ class StrVirtualCommandTest implements StrCategory {
         x = param;
     }
 
+    @StrInput(name = "sum")
+    public void listCommand(
+            @Param(
+                    name = "values"
+            )
+            List<Integer> list
+    ) {
+        values = list;
+    }
+
     @Test
     public void testSetupParameters() throws NoSuchMethodException {
         assertEquals(1, new StrVirtualCommand(new StrVirtualCategory(null, this), this.getClass().getDeclaredMethod("testCommand", int.class)).getParameters().size());
@@ -64,4 +78,16 @@ class StrVirtualCommandTest implements StrCategory {
     public void testGetDefaultName() throws NoSuchMethodException {
         assertEquals("testCommand", new StrVirtualCommand(null, this.getClass().getDeclaredMethod("testCommand", int.class)).getDefaultName());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCollectionInvocation() throws NoSuchMethodException {
+        if (!Context.registered()) {
+            Context.touch(new TestCenter());
+        }
+        StrVirtualCommand test = new StrVirtualCommand(new StrVirtualCategory(null, this), this.getClass().getDeclaredMethod("listCommand", List.class));
+        test.run(new ArrayList<>(List.of("1,2")));
+        assertEquals(List.of(1, 2), values);
+        test.run(new ArrayList<>(List.of("values=3", "values=4,5")));
+        assertEquals(List.of(3, 4, 5), values);
+    }
+}
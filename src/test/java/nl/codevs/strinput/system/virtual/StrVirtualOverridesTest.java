@@ -0,0 +1,92 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package nl.codevs.strinput.system.virtual;
+
+import nl.codevs.strinput.system.StrCategory;
+import nl.codevs.strinput.system.StrInput;
+import nl.codevs.strinput.system.StrSettings;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test class for {@link StrVirtualOverrides}.
+ *
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+class StrVirtualOverridesTest {
+
+    /**
+     * Default settings.
+     */
+    private static final StrSettings.Snapshot SETTINGS = new StrSettings().snapshot();
+
+    @StrInput(name = "admin", matchThreshold = 0.9, nullInput = StrInput.Setting.ENABLED, priority = 5)
+    public static class Admin implements StrCategory {
+
+        public World world = new World();
+
+        @StrInput(description = "Ban")
+        public void ban() {
+        }
+    }
+
+    @StrInput(name = "world", sync = true, pickFirst = StrInput.Setting.ENABLED, nullInput = StrInput.Setting.DISABLED)
+    public static class World implements StrCategory {
+
+        @StrInput(description = "Edit", matchThreshold = 0.1, priority = 1)
+        public void edit() {
+        }
+    }
+
+    @Test
+    void testDeclared() {
+        StrVirtualOverrides overrides = new StrVirtualCategory(null, new Admin()).getOverrides();
+        assertEquals(0.9, overrides.getMatchThreshold(SETTINGS));
+        assertTrue(overrides.isAllowNullInput(SETTINGS));
+        assertEquals(SETTINGS.isPickFirstOnMultiple(), overrides.isPickFirstOnMultiple(SETTINGS));
+        assertFalse(overrides.isSync());
+        assertEquals(5, overrides.getPriority());
+    }
+
+    @Test
+    void testFolded() {
+        StrVirtualCategory admin = new StrVirtualCategory(null, new Admin());
+        StrVirtualCategory world = admin.getSubCats().get(0);
+        StrVirtualCommand edit = world.getCommands().get(0);
+
+        assertEquals(0.9, world.getOverrides().getMatchThreshold(SETTINGS));
+        assertFalse(world.getOverrides().isAllowNullInput(SETTINGS));
+        assertTrue(admin.getCommands().get(0).getOverrides().isAllowNullInput(SETTINGS));
+        assertTrue(edit.getOverrides().isPickFirstOnMultiple(SETTINGS));
+        assertTrue(edit.getOverrides().isSync());
+        assertFalse(admin.getCommands().get(0).getOverrides().isSync());
+        assertEquals(5, world.getPriority());
+        assertEquals(1, edit.getPriority());
+    }
+
+    @Test
+    void testRootUsesSettings() {
+        StrVirtualCategory world = new StrVirtualCategory(null, new World());
+        assertEquals(SETTINGS.getMatchThreshold(), world.getOverrides().getMatchThreshold(SETTINGS));
+        assertEquals(0, world.getPriority());
+    }
+}
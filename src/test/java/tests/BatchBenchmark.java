@@ -0,0 +1,100 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package tests;
+
+import environment.TestCenter;
+import environment.TestUser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark of {@link nl.codevs.strinput.system.StrCenter#onCommands(List, nl.codevs.strinput.system.StrUser)}
+ * against looping over {@link nl.codevs.strinput.system.StrCenter#onCommand(List, nl.codevs.strinput.system.StrUser)}.<br>
+ * Not a unit test, as timings depend on the machine. Run {@link #main(String...)} by hand.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public final class BatchBenchmark {
+
+    /**
+     * Amount of commands in the benchmark batch.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Amount of measured rounds, after as many warm-up rounds.
+     */
+    private static final int ROUNDS = 20;
+
+    private BatchBenchmark() {
+        // Never used
+    }
+
+    /**
+     * Benchmarking.
+     * @param args not used
+     */
+    public static void main(String... args) {
+        List<List<String>> commands = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            commands.add(List.of("test", "multi", String.valueOf(i), "2"));
+        }
+
+        // Warm up both paths
+        for (int i = 0; i < ROUNDS; i++) {
+            loop(commands);
+            batch(commands);
+        }
+
+        long loop = 0;
+        long batch = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            loop += loop(commands);
+            batch += batch(commands);
+        }
+
+        long total = (long) BATCH_SIZE * ROUNDS;
+        System.out.println("Looping onCommand: " + loop / total + "ns/command, onCommands: " + batch / total + "ns/command");
+        TestCenter.SUT.shutdown();
+    }
+
+    /**
+     * Run commands one by one.
+     * @param commands the commands
+     * @return the nanoseconds it took
+     */
+    private static long loop(List<List<String>> commands) {
+        long start = System.nanoTime();
+        for (List<String> command : commands) {
+            TestCenter.SUT.onCommand(new ArrayList<>(command), TestUser.SUT);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Run commands as a batch.
+     * @param commands the commands
+     * @return the nanoseconds it took
+     */
+    private static long batch(List<List<String>> commands) {
+        long start = System.nanoTime();
+        TestCenter.SUT.onCommands(commands, TestUser.SUT);
+        return System.nanoTime() - start;
+    }
+}
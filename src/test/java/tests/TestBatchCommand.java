@@ -0,0 +1,105 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package tests;
+
+import environment.TestCenter;
+import environment.TestRoot;
+import environment.TestUser;
+import nl.codevs.strinput.system.StrUser;
+import nl.codevs.strinput.system.execution.CommandResult;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test {@link nl.codevs.strinput.system.StrCenter#onCommands(List, nl.codevs.strinput.system.StrUser)}.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class TestBatchCommand {
+
+    @Test
+    public void testBatchResults() {
+        List<CommandResult> results = run(TestUser.SUT,
+                List.of("test", "multi", "5", "6"),
+                List.of("does-not-exist"),
+                List.of(" ", ""),
+                List.of("test", "add", "apple", "Pear")
+        );
+        assertEquals(List.of(true, false, false, true), results.stream().map(CommandResult::isSuccess).toList());
+        assertEquals("test multiplication", results.get(0).getPath());
+        assertEquals("Could not find root command for: does-not-exist", results.get(1).getReason());
+        assertEquals("No command entered", results.get(2).getReason());
+        assertEquals(30, TestRoot.multiplicationResult);
+        assertEquals("applePear", TestRoot.stringAddResult);
+    }
+
+    @Test
+    public void testBatchInOrder() {
+        TestCenter.SUT.onCommands(List.of(
+                new ArrayList<>(List.of("test", "multi", "2", "3")),
+                new ArrayList<>(List.of("test", "multi", "4", "5"))
+        ), TestUser.SUT);
+        assertEquals(20, TestRoot.multiplicationResult);
+    }
+
+    @Test
+    public void testBatchSurvivesException() {
+        TestUser user = new TestUser() {
+            @Override
+            public void playSound(@NotNull StrSoundEffect sfx) {
+                if (sfx == StrSoundEffect.FAILED_COMMAND) {
+                    throw new IllegalStateException("No sound");
+                }
+            }
+        };
+        List<CommandResult> results = run(user,
+                List.of("does-not-exist"),
+                List.of("test", "multi", "3", "4")
+        );
+        assertEquals(List.of(false, true), results.stream().map(CommandResult::isSuccess).toList());
+        assertEquals("Uncaught exception: java.lang.IllegalStateException: No sound", results.get(0).getReason());
+        assertEquals(12, TestRoot.multiplicationResult);
+        assertEquals(0, TestCenter.SUT.getInFlight());
+    }
+
+    /**
+     * Run a batch of commands, and get their results.
+     * @param user the user sending the commands
+     * @param commands the commands
+     * @return the results of the commands
+     */
+    @SafeVarargs
+    private static List<CommandResult> run(StrUser user, List<String>... commands) {
+        List<List<String>> batch = new ArrayList<>();
+        for (List<String> command : commands) {
+            batch.add(new ArrayList<>(command));
+        }
+        List<CommandResult> results = new ArrayList<>();
+        for (CompletableFuture<CommandResult> future : TestCenter.SUT.onCommands(batch, user)) {
+            assertTrue(future.isDone());
+            results.add(future.join());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package tests;
+
+import environment.TestCenter;
+import environment.TestUser;
+import nl.codevs.strinput.system.execution.CommandResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test {@link nl.codevs.strinput.system.StrCenter#onCommandAsync(List, nl.codevs.strinput.system.StrUser)}.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class TestCommandResult {
+
+    @Test
+    public void testSuccess() {
+        CommandResult result = tc("test", "multi", "5", "6");
+        assertTrue(result.isSuccess());
+        assertNull(result.getReason());
+        assertEquals("test multiplication", result.getPath());
+        assertEquals(Map.of("i1", 5, "i2", 6), result.getArguments());
+        assertTrue(result.getNanos(CommandResult.Phase.EXECUTE) > 0);
+    }
+
+    @Test
+    public void testWrongRoot() {
+        CommandResult result = tc("does-not-exist");
+        assertFalse(result.isSuccess());
+        assertNull(result.getPath());
+        assertEquals("Could not find root command for: does-not-exist", result.getReason());
+    }
+
+    @Test
+    public void testWrongSubCommand() {
+        CommandResult result = tc("test", "potato");
+        assertFalse(result.isSuccess());
+        assertEquals("Could not find a command matching: test potato", result.getReason());
+    }
+
+    @Test
+    public void testParameterParsingFailed() {
+        CommandResult result = tc("test", "add");
+        assertFalse(result.isSuccess());
+        assertEquals("test add", result.getPath());
+        assertEquals("Parameter parsing failed for test add", result.getReason());
+        assertEquals(0, result.getNanos(CommandResult.Phase.EXECUTE));
+    }
+
+    @Test
+    public void testCategoryHelp() {
+        CommandResult result = tc("test");
+        assertTrue(result.isSuccess());
+        assertEquals("test", result.getPath());
+        assertTrue(result.getArguments().isEmpty());
+    }
+
+    /**
+     * Test a command and get its result.
+     * @param input the input command
+     * @return the result of the command
+     */
+    private CommandResult tc(String... input) {
+        CompletableFuture<CommandResult> future = TestCenter.SUT.onCommandAsync(new ArrayList<>(List.of(input)), TestUser.SUT);
+        assertTrue(future.isDone());
+        return future.join();
+    }
+}
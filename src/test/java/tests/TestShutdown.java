@@ -0,0 +1,78 @@
+/*
+ * This file is part of the StrInput distribution.
+ * (https://github.com/CocoTheOwner/StrInput)
+ * Copyright (c) 2021 Sjoerd van de Goor.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package tests;
+
+import environment.TestCenter;
+import environment.TestUser;
+import nl.codevs.strinput.system.execution.CommandResult;
+import nl.codevs.strinput.system.execution.StrSyncQueue;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test {@link nl.codevs.strinput.system.StrCenter#shutdown()}.
+ * @author Sjoerd van de Goor
+ * @since v1.3
+ */
+public class TestShutdown {
+
+    @Test
+    public void testRejectAfterShutdown() throws InterruptedException {
+        TestCenter center = new TestCenter();
+        center.shutdown();
+        assertTrue(center.isShutdown());
+        assertTrue(center.awaitTermination(Duration.ofSeconds(5)));
+
+        CommandResult result = center.onCommandAsync(new ArrayList<>(List.of("test", "multi", "2", "3")), TestUser.SUT).join();
+        assertFalse(result.isSuccess());
+        assertEquals("Shutting down", result.getReason());
+        assertEquals(0, center.getInFlight());
+        assertEquals("The command system is shutting down, please try again later.",
+                TestUser.SUT.messages.get(TestUser.SUT.messages.size() - 1));
+    }
+
+    @Test
+    public void testAwaitDeferredSync() throws InterruptedException {
+        StrSyncQueue queue = new StrSyncQueue();
+        TestCenter center = new TestCenter() {
+            @Override
+            public void runSync(@NotNull Runnable runnable) {
+                queue.submit(runnable);
+            }
+
+            @Override
+            protected void awaitingTermination() {
+                queue.drainAll();
+            }
+        };
+        AtomicBoolean ran = new AtomicBoolean();
+        center.runDeferred(() -> ran.set(true));
+        assertEquals(1, center.getInFlight());
+        center.shutdown();
+        assertTrue(center.awaitTermination(Duration.ofSeconds(5)));
+        assertTrue(ran.get());
+        assertEquals(0, center.getInFlight());
+    }
+}